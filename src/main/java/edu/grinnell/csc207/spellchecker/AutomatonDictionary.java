@@ -0,0 +1,168 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A read-only dictionary whose words are the strings accepted by a deterministic
+ * automaton over the letters 'a' to 'z'. States are plain ints, so subclasses are
+ * free to lay the automaton out however they like; the queries of
+ * {@link Dictionary} are implemented once here in terms of state transitions.
+ */
+abstract class AutomatonDictionary implements Dictionary {
+    /** The number of letters in the alphabet. */
+    static final int NUM_LETTERS = 26;
+
+    /** The state returned by {@link #child} when there is no transition. */
+    static final int NO_STATE = -1;
+
+    /**
+     * @param dict A list of words to be used as the dictionary
+     * @return the distinct lower-cased words of dict in sorted order
+     */
+    static String[] sortedWords(List<String> dict) {
+        TreeSet<String> words = new TreeSet<>();
+        for (String word : dict) {
+            words.add(word.toLowerCase());
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * @return the start state of the automaton
+     */
+    abstract int root();
+
+    /**
+     * @param state a state of the automaton
+     * @param letter the letter to follow, from 0 for 'a' to 25 for 'z'
+     * @return the state reached from state on letter, or NO_STATE if there is none
+     */
+    abstract int child(int state, int letter);
+
+    /**
+     * @param state a state of the automaton
+     * @return true if the path to state spells a word of the dictionary
+     */
+    abstract boolean isFinal(int state);
+
+    /**
+     * Follows the first end characters of word from the start state.
+     *
+     * @param word the lower-cased word to follow
+     * @param end the number of characters to follow
+     * @return the state reached, or NO_STATE if the path leaves the automaton
+     */
+    private int walk(String word, int end) {
+        int current = root();
+        for (int i = 0; i < end && current != NO_STATE; i++) {
+            current = step(current, word.charAt(i));
+        }
+        return current;
+    }
+
+    /**
+     * @param state a state of the automaton
+     * @param c the character to follow
+     * @return the state reached from state on c, or NO_STATE if there is none
+     */
+    private int step(int state, char c) {
+        int index = c - 'a';
+        if (index < 0 || index >= NUM_LETTERS) {
+            return NO_STATE;
+        }
+        return child(state, index);
+    }
+
+    @Override
+    public boolean isWord(String word) {
+        word = word.toLowerCase();
+        int current = walk(word, word.length());
+        return current != NO_STATE && isFinal(current);
+    }
+
+    @Override
+    public List<String> getOneCharCompletions(String word) {
+        List<String> completions = new ArrayList<>();
+        word = word.toLowerCase();
+        int current = walk(word, word.length());
+        if (current == NO_STATE) {
+            return completions;
+        }
+        for (int i = 0; i < NUM_LETTERS; i++) {
+            int next = child(current, i);
+            if (next != NO_STATE && isFinal(next)) {
+                completions.add(word + (char) ('a' + i));
+            }
+        }
+        return completions;
+    }
+
+    @Override
+    public List<String> getOneCharEndCorrections(String word) {
+        List<String> corrections = new ArrayList<>();
+        if (word.length() == 0) {
+            return corrections;
+        }
+        word = word.toLowerCase();
+        int current = walk(word, word.length() - 1);
+        if (current == NO_STATE) {
+            return corrections;
+        }
+        String prefix = word.substring(0, word.length() - 1);
+        for (int i = 0; i < NUM_LETTERS; i++) {
+            int next = child(current, i);
+            if (next != NO_STATE && isFinal(next)) {
+                corrections.add(prefix + (char) ('a' + i));
+            }
+        }
+        return corrections;
+    }
+
+    @Override
+    public List<String> getOneCharCorrections(String word) {
+        List<String> corrections = new ArrayList<>();
+        char[] letters = word.toLowerCase().toCharArray();
+        findSubstitutions(root(), letters, 0, false, corrections);
+        return corrections;
+    }
+
+    /**
+     * Finds the words reachable from a state by following the rest of a word
+     * with exactly one character substituted, in a single depth-first walk
+     * that follows the prefix once and yields results by position, then by
+     * letter.
+     *
+     * @param state the state reached by the first pos characters
+     * @param letters the word, with the substitution made in place if any
+     * @param pos the index of the next character to follow
+     * @param substituted whether a character has been substituted already
+     * @param corrections the list to add the words found to
+     */
+    private void findSubstitutions(int state, char[] letters, int pos,
+            boolean substituted, List<String> corrections) {
+        if (pos == letters.length) {
+            if (substituted && isFinal(state)) {
+                corrections.add(new String(letters));
+            }
+            return;
+        }
+        char original = letters[pos];
+        if (!substituted) {
+            for (int i = 0; i < NUM_LETTERS; i++) {
+                int next = child(state, i);
+                char replacement = (char) ('a' + i);
+                if (next != NO_STATE && replacement != original) {
+                    letters[pos] = replacement;
+                    findSubstitutions(next, letters, pos + 1, true, corrections);
+                }
+            }
+            letters[pos] = original;
+        }
+        int next = step(state, original);
+        if (next != NO_STATE) {
+            findSubstitutions(next, letters, pos + 1, substituted, corrections);
+        }
+    }
+}
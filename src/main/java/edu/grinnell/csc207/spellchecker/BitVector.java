@@ -0,0 +1,135 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.util.Arrays;
+
+/**
+ * An immutable bit vector with a rank index, supporting select in
+ * near-constant time. The index stores the number of ones before every block of
+ * 512 bits, which costs one int per eight words of bits. A sample index stores
+ * the block holding every 512th zero, so select0 only binary searches the
+ * blocks between two samples, a handful when zeros are not rare as in a LOUDS
+ * shape, and then counts within a block.
+ */
+class BitVector {
+    /** The number of 64-bit words in a rank block. */
+    private static final int WORDS_PER_BLOCK = 8;
+
+    /** The number of bits in a rank block. */
+    private static final int BITS_PER_BLOCK = WORDS_PER_BLOCK * Long.SIZE;
+
+    /** The number of zeros between select samples. */
+    private static final int ZEROS_PER_SAMPLE = BITS_PER_BLOCK;
+
+    /** The bits, least significant bit first within each word. */
+    private final long[] bits;
+    /** The number of bits. */
+    private final int length;
+    /** The number of ones before each block, plus the total at the end. */
+    private final int[] blockRanks;
+    /**
+     * The block holding the zero with i * ZEROS_PER_SAMPLE zeros before it, for
+     * each i, plus the last block at the end.
+     */
+    private final int[] zeroSamples;
+
+    /**
+     * @param bits the bits, least significant bit first within each word
+     * @param length the number of bits
+     */
+    BitVector(long[] bits, int length) {
+        this.bits = Arrays.copyOf(bits, (length + Long.SIZE - 1) / Long.SIZE);
+        this.length = length;
+        int numBlocks = (this.bits.length + WORDS_PER_BLOCK - 1) / WORDS_PER_BLOCK;
+        this.blockRanks = new int[numBlocks + 1];
+        int ones = 0;
+        for (int i = 0; i < this.bits.length; i++) {
+            if (i % WORDS_PER_BLOCK == 0) {
+                blockRanks[i / WORDS_PER_BLOCK] = ones;
+            }
+            ones += Long.bitCount(this.bits[i]);
+        }
+        blockRanks[numBlocks] = ones;
+
+        int numSamples = (numBlocks * BITS_PER_BLOCK - ones) / ZEROS_PER_SAMPLE + 1;
+        this.zeroSamples = new int[numSamples + 1];
+        int block = 0;
+        for (int i = 0; i < numSamples; i++) {
+            int zeros = i * ZEROS_PER_SAMPLE;
+            while (block + 1 < numBlocks && zerosBefore(block + 1) <= zeros) {
+                block++;
+            }
+            zeroSamples[i] = block;
+        }
+        zeroSamples[numSamples] = Math.max(0, numBlocks - 1);
+    }
+
+    /**
+     * @param block a block index
+     * @return the number of zeros before the block
+     */
+    private int zerosBefore(int block) {
+        return block * BITS_PER_BLOCK - blockRanks[block];
+    }
+
+    /**
+     * @return the number of bits
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * @param i a bit position
+     * @return true if the bit at position i is set
+     */
+    boolean get(int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * @param i a bit position
+     * @return the position of the first zero at or after position i
+     */
+    int nextZero(int i) {
+        int word = i >>> 6;
+        long zeros = ~bits[word] & (-1L << i);
+        while (zeros == 0) {
+            zeros = ~bits[++word];
+        }
+        return word * Long.SIZE + Long.numberOfTrailingZeros(zeros);
+    }
+
+    /**
+     * @param k the number of zeros to skip, counting from 0
+     * @return the position of the zero with k zeros before it
+     */
+    int select0(int k) {
+        // Find the last block with at most k zeros before it, which lies
+        // between the blocks sampled on either side of k
+        int sample = k / ZEROS_PER_SAMPLE;
+        int lo = zeroSamples[sample];
+        int hi = zeroSamples[sample + 1];
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (zerosBefore(mid) <= k) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        int remaining = k - zerosBefore(lo);
+        int word = lo * WORDS_PER_BLOCK;
+        while (true) {
+            long zeros = ~bits[word];
+            int count = Long.bitCount(zeros);
+            if (remaining < count) {
+                for (int j = 0; j < remaining; j++) {
+                    zeros &= zeros - 1;
+                }
+                return word * Long.SIZE + Long.numberOfTrailingZeros(zeros);
+            }
+            remaining -= count;
+            word++;
+        }
+    }
+}
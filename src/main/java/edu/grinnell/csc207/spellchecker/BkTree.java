@@ -0,0 +1,172 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A BK-tree over the dictionary under the Levenshtein metric. Each node is a
+ * word, and the child of a node along the edge labelled d holds the words at
+ * distance exactly d from it. By the triangle inequality, the words within k
+ * of a query can only be below the children whose label is within k of the
+ * query's distance to their parent, so a lookup computes the distance to each
+ * node it visits and skips every other subtree. That distance is only computed
+ * exactly up to the largest label below the node plus k, which keeps the
+ * computation at the leaves, most of the tree, to a narrow band.
+ *
+ * <p>Even so, a lookup on words_alpha.txt visits a large part of the tree and
+ * takes from 0.75 to 46 milliseconds, at least 20 times as long as
+ * {@link SpellChecker#getCorrections(String, int)} or a {@link DeletionIndex}.
+ * It is kept only as a baseline for benchmarking those.
+ *
+ * <p>The frozen tree is flat: node i is the i-th word in alphabetical order,
+ * and the children of each node are stored in one array, ordered by edge label,
+ * from the node's offset up to the next node's.
+ */
+public class BkTree implements FuzzyIndex {
+    /** The distinct lower-cased words of the dictionary, in sorted order. */
+    private final String[] words;
+    /** The index in children of the first child of each node, and the end. */
+    private final int[] offsets;
+    /** The children of every node, grouped by parent and ordered by label. */
+    private final int[] children;
+    /** The label of the edge to each child in children. */
+    private final int[] labels;
+
+    /**
+     * @param words the distinct lower-cased words, in sorted order
+     * @param offsets the index in children of the first child of each node
+     * @param children the children of every node, ordered by label
+     * @param labels the label of the edge to each child
+     */
+    private BkTree(String[] words, int[] offsets, int[] children, int[] labels) {
+        this.words = words;
+        this.offsets = offsets;
+        this.children = children;
+        this.labels = labels;
+    }
+
+    /**
+     * Builds a BK-tree over the given words, which may be in any order.
+     *
+     * @param dict A list of words to be used as the dictionary
+     * @return a BkTree over the given words
+     */
+    public static BkTree fromWords(List<String> dict) {
+        String[] words = AutomatonDictionary.sortedWords(dict);
+        int n = words.length;
+        // While building, children are linked lists through these arrays
+        int[] firstChild = new int[n];
+        int[] nextSibling = new int[n];
+        int[] label = new int[n];
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(nextSibling, -1);
+        for (int id = 1; id < n; id++) {
+            int node = 0;
+            while (true) {
+                int d = distance(words[id], words[node]);
+                int child = firstChild[node];
+                while (child >= 0 && label[child] != d) {
+                    child = nextSibling[child];
+                }
+                if (child < 0) {
+                    label[id] = d;
+                    nextSibling[id] = firstChild[node];
+                    firstChild[node] = id;
+                    break;
+                }
+                node = child;
+            }
+        }
+
+        int[] offsets = new int[n + 1];
+        int[] children = new int[Math.max(0, n - 1)];
+        int[] labels = new int[children.length];
+        int count = 0;
+        for (int node = 0; node < n; node++) {
+            offsets[node] = count;
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                // Insertion sort by label; a node has at most a few dozen children
+                int i = count++;
+                while (i > offsets[node] && labels[i - 1] > label[child]) {
+                    children[i] = children[i - 1];
+                    labels[i] = labels[i - 1];
+                    i--;
+                }
+                children[i] = child;
+                labels[i] = label[child];
+            }
+        }
+        offsets[n] = count;
+        return new BkTree(words, offsets, children, labels);
+    }
+
+    /**
+     * @param a a word
+     * @param b another word
+     * @return the exact Levenshtein distance between a and b
+     */
+    private static int distance(String a, String b) {
+        return EditDistance.levenshtein(a, b, Math.max(a.length(), b.length()));
+    }
+
+    /**
+     * @return the number of words in the tree
+     */
+    public int size() {
+        return words.length;
+    }
+
+    /**
+     * @return the size in bytes of the arrays of the tree, without the words
+     */
+    public long sizeInBytes() {
+        return ((long) offsets.length + children.length + labels.length) * Integer.BYTES;
+    }
+
+    @Override
+    public List<String> getCorrections(String word, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Negative distance: " + maxDistance);
+        }
+        if (words.length == 0) {
+            return new ArrayList<>();
+        }
+        List<List<String>> byDistance = new ArrayList<>();
+        for (int d = 0; d <= maxDistance; d++) {
+            byDistance.add(new ArrayList<>());
+        }
+
+        String query = word.toLowerCase();
+        int[] stack = new int[16];
+        int depth = 0;
+        stack[depth++] = 0;
+        while (depth > 0) {
+            int node = stack[--depth];
+            int end = offsets[node + 1];
+            // Past the largest label plus maxDistance, the exact distance no
+            // longer matters: neither the node nor any child can be in range
+            int limit = maxDistance + (end > offsets[node] ? labels[end - 1] : 0);
+            int d = EditDistance.levenshtein(query, words[node], limit);
+            if (d <= maxDistance) {
+                byDistance.get(d).add(words[node]);
+            }
+            for (int i = offsets[node]; i < end && labels[i] <= d + maxDistance; i++) {
+                if (labels[i] >= d - maxDistance) {
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, depth * 2);
+                    }
+                    stack[depth++] = children[i];
+                }
+            }
+        }
+
+        List<String> corrections = new ArrayList<>();
+        for (int d = 1; d <= maxDistance; d++) {
+            Collections.sort(byDistance.get(d));
+            corrections.addAll(byDistance.get(d));
+        }
+        return corrections;
+    }
+}
@@ -0,0 +1,81 @@
+package edu.grinnell.csc207.spellchecker;
+
+/**
+ * A blocked Bloom filter over 64-bit hashes. Every key sets all of its bits in
+ * a single 512-bit block, so a lookup touches one cache line. It answers
+ * "definitely absent" or "maybe present", and never the former for a key that
+ * was added.
+ */
+class BloomFilter {
+    /** The number of 64-bit words in a block, one cache line. */
+    private static final int WORDS_PER_BLOCK = 8;
+
+    /** The mask of a bit position within a block. */
+    private static final int BLOCK_BIT_MASK = WORDS_PER_BLOCK * Long.SIZE - 1;
+
+    /** The bits of all blocks. */
+    private final long[] bits;
+    /** The number of blocks. */
+    private final int numBlocks;
+    /** The number of bits set per key. */
+    private final int numHashes;
+
+    /**
+     * @param expectedKeys the number of keys that will be added
+     * @param bitsPerKey the number of bits of filter to use per key
+     */
+    BloomFilter(long expectedKeys, int bitsPerKey) {
+        long numBits = Math.max(1, expectedKeys) * bitsPerKey;
+        this.numBlocks = (int) Math.max(1, (numBits + BLOCK_BIT_MASK) / (BLOCK_BIT_MASK + 1));
+        this.bits = new long[numBlocks * WORDS_PER_BLOCK];
+        this.numHashes = Math.max(1, (int) Math.round(bitsPerKey * Math.log(2)));
+    }
+
+    /**
+     * @param hash the hash of a key
+     * @return the index in bits of the first word of the key's block
+     */
+    private int blockStart(long hash) {
+        // Map the high half of the hash onto the blocks without a division
+        return (int) (((hash >>> 32) * numBlocks) >>> 32) * WORDS_PER_BLOCK;
+    }
+
+    /**
+     * @param hash the hash of a key
+     * @return the step between the key's bit positions, remixed so that it does
+     *         not depend on the same bits as the block
+     */
+    private static int secondHash(long hash) {
+        return (int) (((hash ^ (hash >>> 29)) * 0xBF58476D1CE4E5B9L) >>> 32) | 1;
+    }
+
+    /**
+     * @param hash the hash of the key to add
+     */
+    void add(long hash) {
+        int start = blockStart(hash);
+        int h1 = (int) hash;
+        int h2 = secondHash(hash);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (h1 + i * h2) & BLOCK_BIT_MASK;
+            bits[start + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @param hash the hash of a key
+     * @return false if the key was definitely never added
+     */
+    boolean mightContain(long hash) {
+        int start = blockStart(hash);
+        int h1 = (int) hash;
+        int h2 = secondHash(hash);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (h1 + i * h2) & BLOCK_BIT_MASK;
+            if ((bits[start + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
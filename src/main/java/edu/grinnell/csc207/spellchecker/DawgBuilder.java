@@ -0,0 +1,259 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Builds a {@link DawgDictionary} in one pass over words given in sorted order,
+ * using the incremental construction of Daciuk et al. Only the states along the
+ * path of the last word added are still open; as soon as a new word leaves that
+ * path, the abandoned part can never change again, so it is minimized right
+ * away: each of its states is either merged with an equivalent state already
+ * built or appended to the automaton. Memory is therefore bounded by the size of
+ * the final automaton plus one word's worth of open states.
+ *
+ * <p>Words are compared after folding to lower case, and must not decrease;
+ * repeated words are ignored.
+ */
+public class DawgBuilder {
+    /** The initial capacity of the state and transition arrays. */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** The letter mask and final bit of each built state. */
+    private int[] masks = new int[INITIAL_CAPACITY];
+    /** The index in targets of the first transition of each built state. */
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    /** The target state of each transition of the built states. */
+    private int[] targets = new int[INITIAL_CAPACITY];
+    /** The number of built states. */
+    private int numStates;
+    /** The number of transitions of the built states. */
+    private int numTargets;
+
+    /**
+     * An open-addressing hash table of the built states, keyed by their mask
+     * and transitions, holding state + 1 so that 0 marks an empty slot.
+     */
+    private int[] register = new int[INITIAL_CAPACITY];
+
+    /** The letters of the last word added. */
+    private char[] word = new char[32];
+    /** The length of the last word added, or -1 before the first word. */
+    private int length = -1;
+    /** The letter mask and final bit of each open state along the path. */
+    private int[] pathMasks = new int[33];
+    /** The targets of the built children of each open state, in letter order. */
+    private int[][] pathTargets = new int[33][AutomatonDictionary.NUM_LETTERS];
+    /** The number of built children of each open state. */
+    private int[] pathCounts = new int[33];
+
+    /** Whether build has been called. */
+    private boolean built;
+
+    /**
+     * Adds the next word in sorted order.
+     *
+     * @param next the word to add
+     * @return this builder
+     * @throws IllegalArgumentException If next sorts before the previous word or
+     *         is not made of letters
+     * @throws IllegalStateException If build has already been called
+     */
+    public DawgBuilder add(CharSequence next) {
+        if (built) {
+            throw new IllegalStateException("The automaton has already been built");
+        }
+        int n = next.length();
+        // Find the common prefix with the previous word, then check the order
+        int prefix = 0;
+        while (prefix < n && prefix < length
+                && Character.toLowerCase(next.charAt(prefix)) == word[prefix]) {
+            prefix++;
+        }
+        if (length >= 0) {
+            boolean smaller = prefix < n && prefix < length
+                    ? Character.toLowerCase(next.charAt(prefix)) < word[prefix]
+                    : n < length;
+            if (smaller) {
+                throw new IllegalArgumentException("Words are not in sorted order: \""
+                        + next + "\" after \"" + new String(word, 0, length) + "\"");
+            }
+            if (prefix == n && n == length) {
+                return this;
+            }
+        }
+        for (int i = prefix; i < n; i++) {
+            int index = Character.toLowerCase(next.charAt(i)) - 'a';
+            if (index < 0 || index >= AutomatonDictionary.NUM_LETTERS) {
+                throw new IllegalArgumentException("Not a letter: " + next.charAt(i));
+            }
+        }
+
+        closePath(prefix);
+        ensurePathCapacity(n);
+        for (int i = prefix; i < n; i++) {
+            char c = Character.toLowerCase(next.charAt(i));
+            word[i] = c;
+            pathMasks[i] |= 1 << (c - 'a');
+            pathMasks[i + 1] = 0;
+            pathCounts[i + 1] = 0;
+        }
+        pathMasks[n] |= DawgDictionary.FINAL_BIT;
+        length = n;
+        return this;
+    }
+
+    /**
+     * Adds every remaining word of an iterator, in order.
+     *
+     * @param words the words to add, in sorted order
+     * @return this builder
+     */
+    public DawgBuilder addAll(Iterator<? extends CharSequence> words) {
+        while (words.hasNext()) {
+            add(words.next());
+        }
+        return this;
+    }
+
+    /**
+     * Minimizes the remaining open states and freezes the automaton. The
+     * builder cannot be used afterwards.
+     *
+     * @return a DawgDictionary over the words added
+     */
+    public DawgDictionary build() {
+        if (built) {
+            throw new IllegalStateException("The automaton has already been built");
+        }
+        built = true;
+        closePath(0);
+        int rootState = registerState(pathMasks[0], pathTargets[0], pathCounts[0]);
+        DawgDictionary dictionary = new DawgDictionary(
+                Arrays.copyOf(masks, numStates),
+                Arrays.copyOf(offsets, numStates),
+                Arrays.copyOf(targets, numTargets),
+                rootState);
+        register = null;
+        return dictionary;
+    }
+
+    /**
+     * Minimizes the open states deeper than depth, leaving the state at depth
+     * open with its child on the last word's letter built.
+     *
+     * @param depth the depth of the deepest state that stays open
+     */
+    private void closePath(int depth) {
+        for (int d = length; d > depth; d--) {
+            int state = registerState(pathMasks[d], pathTargets[d], pathCounts[d]);
+            // The closed child always has the parent's largest letter
+            pathTargets[d - 1][pathCounts[d - 1]++] = state;
+        }
+    }
+
+    /**
+     * @param depth the length of the next word
+     */
+    private void ensurePathCapacity(int depth) {
+        if (depth >= word.length) {
+            int capacity = Math.max(depth + 1, word.length * 2);
+            word = Arrays.copyOf(word, capacity);
+            pathMasks = Arrays.copyOf(pathMasks, capacity + 1);
+            pathCounts = Arrays.copyOf(pathCounts, capacity + 1);
+            int old = pathTargets.length;
+            pathTargets = Arrays.copyOf(pathTargets, capacity + 1);
+            for (int i = old; i < pathTargets.length; i++) {
+                pathTargets[i] = new int[AutomatonDictionary.NUM_LETTERS];
+            }
+        }
+    }
+
+    /**
+     * Finds the built state equivalent to an open state, building it if there
+     * is none.
+     *
+     * @param mask the letter mask and final bit of the open state
+     * @param children the targets of its children in letter order
+     * @param count the number of children
+     * @return the equivalent built state
+     */
+    private int registerState(int mask, int[] children, int count) {
+        int slot = hash(mask, children, 0, count) & (register.length - 1);
+        while (register[slot] != 0) {
+            int state = register[slot] - 1;
+            if (sameState(state, mask, children, count)) {
+                return state;
+            }
+            slot = (slot + 1) & (register.length - 1);
+        }
+
+        if (numStates == masks.length) {
+            masks = Arrays.copyOf(masks, numStates * 2);
+            offsets = Arrays.copyOf(offsets, numStates * 2);
+        }
+        while (numTargets + count > targets.length) {
+            targets = Arrays.copyOf(targets, targets.length * 2);
+        }
+        int state = numStates++;
+        masks[state] = mask;
+        offsets[state] = numTargets;
+        System.arraycopy(children, 0, targets, numTargets, count);
+        numTargets += count;
+
+        register[slot] = state + 1;
+        if (numStates * 2 > register.length) {
+            rehash();
+        }
+        return state;
+    }
+
+    /**
+     * @param state a built state
+     * @param mask the letter mask and final bit of an open state
+     * @param children the targets of the open state's children in letter order
+     * @param count the number of children
+     * @return true if the built state is equivalent to the open state
+     */
+    private boolean sameState(int state, int mask, int[] children, int count) {
+        if (masks[state] != mask) {
+            return false;
+        }
+        int offset = offsets[state];
+        for (int i = 0; i < count; i++) {
+            if (targets[offset + i] != children[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param mask the letter mask and final bit of a state
+     * @param children an array holding the targets of the state's children
+     * @param offset the index in children of the first target
+     * @param count the number of children
+     * @return the hash code of the state in the register
+     */
+    private static int hash(int mask, int[] children, int offset, int count) {
+        int hash = mask;
+        for (int i = 0; i < count; i++) {
+            hash = hash * 31 + children[offset + i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /** Doubles the register and reinserts every built state. */
+    private void rehash() {
+        register = new int[register.length * 2];
+        for (int state = 0; state < numStates; state++) {
+            int count = Integer.bitCount(masks[state] & DawgDictionary.LETTER_MASK);
+            int slot = hash(masks[state], targets, offsets[state], count)
+                    & (register.length - 1);
+            while (register[slot] != 0) {
+                slot = (slot + 1) & (register.length - 1);
+            }
+            register[slot] = state + 1;
+        }
+    }
+}
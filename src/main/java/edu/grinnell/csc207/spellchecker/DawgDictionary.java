@@ -0,0 +1,159 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A dictionary stored as a minimal acyclic automaton (a DAWG). Unlike the trie
+ * of a {@link SpellChecker}, which only shares prefixes, equivalent suffix
+ * subtrees such as "-ing" or "-ness" are merged into a single copy.
+ *
+ * <p>The frozen automaton is three int arrays. Each state has a 26-bit mask of
+ * the letters it has transitions on (bit 26 marks a final state) and an offset
+ * into the targets array, where its transitions are stored in letter order.
+ */
+public class DawgDictionary extends AutomatonDictionary {
+    /** The bit of a state mask marking the state as final. */
+    static final int FINAL_BIT = 1 << NUM_LETTERS;
+
+    /** The mask of the letter bits in a state mask. */
+    static final int LETTER_MASK = FINAL_BIT - 1;
+
+    /** The letter mask and final bit of each state. */
+    private final int[] masks;
+    /** The index in targets of the first transition of each state. */
+    private final int[] offsets;
+    /** The target state of each transition. */
+    private final int[] targets;
+    /** The start state. */
+    private final int rootState;
+
+    /**
+     * @param masks the letter mask and final bit of each state
+     * @param offsets the index in targets of the first transition of each state
+     * @param targets the target state of each transition
+     * @param rootState the start state
+     */
+    DawgDictionary(int[] masks, int[] offsets, int[] targets, int rootState) {
+        this.masks = masks;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.rootState = rootState;
+    }
+
+    /**
+     * @param filename the path to the dictionary file
+     * @return a DawgDictionary over the words found in the given file.
+     */
+    public static DawgDictionary fromFile(String filename) throws IOException {
+        return fromWords(Files.readAllLines(Paths.get(filename)));
+    }
+
+    /**
+     * Builds a minimal automaton accepting exactly the given words, which may be
+     * in any order.
+     *
+     * @param dict A list of words to be used as the dictionary
+     * @return a DawgDictionary over the given words
+     */
+    public static DawgDictionary fromWords(List<String> dict) {
+        return fromSorted(Arrays.asList(sortedWords(dict)).iterator());
+    }
+
+    /**
+     * Builds a minimal automaton in one streaming pass over sorted words.
+     *
+     * @param words the words of the dictionary, in sorted order
+     * @return a DawgDictionary over the given words
+     * @throws IllegalArgumentException If the words are not in sorted order
+     * @see DawgBuilder
+     */
+    public static DawgDictionary fromSorted(Iterator<? extends CharSequence> words) {
+        return new DawgBuilder().addAll(words).build();
+    }
+
+    /**
+     * Builds a minimal automaton in one streaming pass over sorted words.
+     *
+     * @param words the words of the dictionary, in sorted order
+     * @return a DawgDictionary over the given words
+     * @throws IllegalArgumentException If the words are not in sorted order
+     * @see DawgBuilder
+     */
+    public static DawgDictionary fromSorted(Stream<? extends CharSequence> words) {
+        return fromSorted(words.sequential().iterator());
+    }
+
+    /**
+     * @return the number of states of the automaton
+     */
+    public int numStates() {
+        return masks.length;
+    }
+
+    /**
+     * @return the number of transitions of the automaton
+     */
+    public int numTransitions() {
+        return targets.length;
+    }
+
+    /**
+     * Writes the automaton in the flat layout read by {@link MappedDictionary},
+     * followed by a CRC-32 of everything before it.
+     *
+     * @param path the file to write
+     * @throws IOException If the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(path))) {
+            CheckedOutputStream checked = new CheckedOutputStream(file, new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MappedDictionary.MAGIC);
+            out.writeInt(MappedDictionary.VERSION);
+            out.writeInt(masks.length);
+            out.writeInt(targets.length);
+            out.writeInt(rootState);
+            for (int state = 0; state < masks.length; state++) {
+                out.writeInt(masks[state]);
+                out.writeInt(offsets[state]);
+            }
+            for (int target : targets) {
+                out.writeInt(target);
+            }
+            out.flush();
+            new DataOutputStream(file).writeLong(checked.getChecksum().getValue());
+        }
+    }
+
+    @Override
+    int root() {
+        return rootState;
+    }
+
+    @Override
+    int child(int state, int letter) {
+        int mask = masks[state];
+        int bit = 1 << letter;
+        if ((mask & bit) == 0) {
+            return NO_STATE;
+        }
+        return targets[offsets[state] + Integer.bitCount(mask & (bit - 1))];
+    }
+
+    @Override
+    boolean isFinal(int state) {
+        return (masks[state] & FINAL_BIT) != 0;
+    }
+}
@@ -0,0 +1,345 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A precomputed index of deletions for fuzzy lookup, trading memory for
+ * latency. Every string obtained by deleting up to a fixed number of letters
+ * from a dictionary word is hashed and mapped to the words it came from. Two
+ * words are within Levenshtein distance k only if deleting at most k letters
+ * from each can make them equal, so the candidates for a query are the words
+ * sharing one of the query's own deletions; a lookup is a handful of hash
+ * probes followed by verifying each candidate's distance.
+ *
+ * <p>The index is flat: the words, and {@link PostingLists} from each
+ * distinct deletion hash to the ids of its words. Hashes are truncated to make
+ * room for a word id beside them while building, so two deletions occasionally
+ * share a hash; that only adds a candidate, which verification then rejects.
+ */
+public class DeletionIndex implements FuzzyIndex {
+    /** The first int of every index file, "DELS" in ASCII. */
+    static final int MAGIC = 0x44454c53;
+
+    /** The version of the index file format. */
+    static final int VERSION = 1;
+
+    /** The size in bytes of an index file header. */
+    private static final int HEADER_BYTES = 7 * Integer.BYTES;
+
+    /** The number of low bits of a packed entry holding the word id. */
+    private static final int ID_BITS = 24;
+
+    /** The mask of the word id of a packed entry. */
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+
+    /** The distinct lower-cased words of the dictionary, in sorted order. */
+    private final String[] words;
+    /** The largest number of deletions indexed per word. */
+    private final int maxDistance;
+    /** The ids of the words having each truncated deletion hash. */
+    private final PostingLists lists;
+
+    /**
+     * @param words the distinct lower-cased words, in sorted order
+     * @param maxDistance the largest number of deletions indexed per word
+     * @param lists the ids of the words having each truncated deletion hash
+     */
+    private DeletionIndex(String[] words, int maxDistance, PostingLists lists) {
+        this.words = words;
+        this.maxDistance = maxDistance;
+        this.lists = lists;
+    }
+
+    /**
+     * Builds the index on all cores. The deletions of each word are hashed in
+     * parallel into one array of entries packing the hash with the word id, the
+     * array is sorted in parallel, and the sorted runs of equal hashes become
+     * the keys and postings.
+     *
+     * @param dict A list of words to be used as the dictionary
+     * @param maxDistance the largest edit distance that will be looked up
+     * @return a DeletionIndex over the given words
+     * @throws IllegalArgumentException If maxDistance is negative, or there are
+     *         too many words or deletions to index
+     */
+    public static DeletionIndex build(List<String> dict, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Negative distance: " + maxDistance);
+        }
+        String[] words = AutomatonDictionary.sortedWords(dict);
+        if (words.length > ID_MASK) {
+            throw new IllegalArgumentException("Too many words to index: " + words.length);
+        }
+        int[] offsets = new int[words.length + 1];
+        for (int id = 0; id < words.length; id++) {
+            long end = offsets[id] + countDeletions(words[id].length(), maxDistance);
+            if (end > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Too many deletions to index");
+            }
+            offsets[id + 1] = (int) end;
+        }
+        long[] entries = new long[offsets[words.length]];
+        IntStream.range(0, words.length).parallel().forEach(id ->
+                addDeletions(words[id].toCharArray(), words[id].length(), 0, maxDistance,
+                        id, entries, offsets[id]));
+        Arrays.parallelSort(entries);
+        // A word with repeated letters reaches some deletions twice, which the
+        // lists keep once
+        return new DeletionIndex(words, maxDistance,
+                PostingLists.fromSortedEntries(entries, ID_BITS));
+    }
+
+    /**
+     * @param length the length of a word
+     * @param maxDeletions the largest number of letters deleted
+     * @return the number of ways to delete up to maxDeletions letters from the
+     *         word, counting deletions that give the same string separately
+     */
+    private static long countDeletions(int length, int maxDeletions) {
+        long count = 0;
+        long ways = 1;
+        for (int k = 0; k <= Math.min(length, maxDeletions); k++) {
+            count += ways;
+            ways = ways * (length - k) / (k + 1);
+        }
+        return count;
+    }
+
+    /**
+     * Writes the packed entry of every way to delete up to remaining more
+     * letters from a word, deleting only at or after start so that each set of
+     * positions is reached once.
+     *
+     * @param word the letters left of the word; restored before returning
+     * @param length the number of letters left
+     * @param start the first position that may be deleted
+     * @param remaining the number of letters that may still be deleted
+     * @param id the word id to pack with each hash
+     * @param entries the array to write the entries to
+     * @param at the index in entries of the next entry
+     * @return the index in entries after the last entry written
+     */
+    private static int addDeletions(char[] word, int length, int start, int remaining, int id,
+            long[] entries, int at) {
+        entries[at++] = hash(word, length) & ~ID_MASK | id;
+        if (remaining == 0) {
+            return at;
+        }
+        for (int i = start; i < length; i++) {
+            char deleted = word[i];
+            System.arraycopy(word, i + 1, word, i, length - i - 1);
+            at = addDeletions(word, length - 1, i, remaining - 1, id, entries, at);
+            System.arraycopy(word, i, word, i + 1, length - i - 1);
+            word[i] = deleted;
+        }
+        return at;
+    }
+
+    /**
+     * @param word the letters of a string
+     * @param length the number of letters
+     * @return the hash of the string, with its bits mixed
+     */
+    private static long hash(char[] word, int length) {
+        long hash = WordHash.SEED;
+        for (int i = 0; i < length; i++) {
+            hash = WordHash.step(hash, word[i]);
+        }
+        return WordHash.finish(hash);
+    }
+
+    /**
+     * Finds all valid words within a Levenshtein distance of the given word.
+     *
+     * @param word The word to correct
+     * @param maxDistance The largest number of insertions, deletions and
+     *        substitutions allowed, at most the distance the index was built for
+     * @return The words other than word itself within maxDistance of it,
+     *         closest first and in alphabetical order within each distance
+     * @throws IllegalArgumentException If maxDistance is negative or larger than
+     *         the distance the index was built for
+     */
+    public List<String> getCorrections(String word, int maxDistance) {
+        if (maxDistance < 0 || maxDistance > this.maxDistance) {
+            throw new IllegalArgumentException("Distance out of range: " + maxDistance);
+        }
+        String query = word.toLowerCase();
+        char[] letters = query.toCharArray();
+        long[] deletions = new long[(int) countDeletions(letters.length, maxDistance)];
+        addDeletions(letters, letters.length, 0, maxDistance, 0, deletions, 0);
+
+        int[] candidates = new int[16];
+        int numCandidates = 0;
+        for (long key : deletions) {
+            int k = lists.find(key);
+            if (k < 0) {
+                continue;
+            }
+            int count = lists.starts[k + 1] - lists.starts[k];
+            if (numCandidates + count > candidates.length) {
+                candidates = Arrays.copyOf(candidates,
+                        Math.max(candidates.length * 2, numCandidates + count));
+            }
+            System.arraycopy(lists.ids, lists.starts[k], candidates, numCandidates, count);
+            numCandidates += count;
+        }
+        Arrays.sort(candidates, 0, numCandidates);
+
+        // Ids are in alphabetical order, so each distance's list is too
+        List<List<String>> byDistance = new ArrayList<>();
+        for (int d = 0; d <= maxDistance; d++) {
+            byDistance.add(new ArrayList<>());
+        }
+        for (int i = 0; i < numCandidates; i++) {
+            if (i > 0 && candidates[i] == candidates[i - 1]) {
+                continue;
+            }
+            String candidate = words[candidates[i]];
+            int distance = EditDistance.levenshtein(query, candidate, maxDistance);
+            if (distance <= maxDistance) {
+                byDistance.get(distance).add(candidate);
+            }
+        }
+        List<String> corrections = new ArrayList<>();
+        for (int d = 1; d <= maxDistance; d++) {
+            corrections.addAll(byDistance.get(d));
+        }
+        return corrections;
+    }
+
+    /**
+     * @return the largest edit distance that can be looked up
+     */
+    public int maxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * @return the number of distinct deletion hashes in the index
+     */
+    public int numKeys() {
+        return lists.keys.length;
+    }
+
+    /**
+     * @return the size in bytes of the arrays of the index, without the words
+     */
+    public long sizeInBytes() {
+        return lists.sizeInBytes();
+    }
+
+    /**
+     * Writes the index so that it can be loaded with {@link #load} instead of
+     * being rebuilt. The file is a header (magic, version, distance, number of
+     * words, size in bytes of the words, and numbers of keys and postings), the
+     * words in UTF-8 separated by newlines, the keys, the starts of the
+     * postings and the postings, all big-endian, and a CRC-32 of all of the
+     * preceding bytes. The hash table is rebuilt on loading.
+     *
+     * @param path the file to write
+     * @throws IOException If the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        byte[] text = String.join("\n", words).getBytes(StandardCharsets.UTF_8);
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(path))) {
+            CheckedOutputStream checked = new CheckedOutputStream(file, new CRC32());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(maxDistance);
+            out.writeInt(words.length);
+            out.writeInt(text.length);
+            out.writeInt(lists.keys.length);
+            out.writeInt(lists.ids.length);
+            out.write(text);
+            for (long key : lists.keys) {
+                out.writeLong(key);
+            }
+            for (int start : lists.starts) {
+                out.writeInt(start);
+            }
+            for (int id : lists.ids) {
+                out.writeInt(id);
+            }
+            out.flush();
+            new DataOutputStream(file).writeLong(checked.getChecksum().getValue());
+        }
+    }
+
+    /**
+     * Loads an index written by {@link #save}, copying each array out of the
+     * file in bulk.
+     *
+     * @param path the path to the index file
+     * @return the DeletionIndex in the file
+     * @throws IOException If the file cannot be read or is not a valid index file
+     */
+    public static DeletionIndex load(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_BYTES + Long.BYTES || in.getInt() != MAGIC) {
+            throw new IOException("Not an index file: " + path);
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported index file version: " + version);
+        }
+        int maxDistance = in.getInt();
+        int numWords = in.getInt();
+        int textBytes = in.getInt();
+        int numKeys = in.getInt();
+        int numPostings = in.getInt();
+        int end = bytes.length - Long.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, end);
+        if (crc.getValue() != in.getLong(end) || maxDistance < 0 || numWords < 0
+                || textBytes < 0 || numKeys < 0 || numPostings < 0
+                || HEADER_BYTES + (long) textBytes + (long) numKeys * Long.BYTES
+                        + ((long) numKeys + 1 + numPostings) * Integer.BYTES != end) {
+            throw new IOException("Corrupt index file: " + path);
+        }
+
+        String text = new String(bytes, HEADER_BYTES, textBytes, StandardCharsets.UTF_8);
+        String[] words = text.split("\n", -1);
+        if (words.length != Math.max(numWords, 1) || (numWords == 0 && textBytes != 0)) {
+            throw new IOException("Corrupt index file: " + path);
+        }
+        if (numWords == 0) {
+            words = new String[0];
+        }
+        in.position(HEADER_BYTES + textBytes);
+        long[] keys = new long[numKeys];
+        in.asLongBuffer().get(keys);
+        in.position(in.position() + numKeys * Long.BYTES);
+        int[] starts = new int[numKeys + 1];
+        int[] postings = new int[numPostings];
+        in.asIntBuffer().get(starts).get(postings);
+        for (int k = 0; k <= numKeys; k++) {
+            if (starts[k] < (k == 0 ? 0 : starts[k - 1]) || starts[k] > numPostings) {
+                throw new IOException("Corrupt index file: " + path);
+            }
+        }
+        for (int id : postings) {
+            if (id < 0 || id >= numWords) {
+                throw new IOException("Corrupt index file: " + path);
+            }
+        }
+        if (starts[numKeys] != numPostings) {
+            throw new IOException("Corrupt index file: " + path);
+        }
+        return new DeletionIndex(words, maxDistance, new PostingLists(keys, starts, postings));
+    }
+}
@@ -0,0 +1,47 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.util.List;
+
+/**
+ * A read-only view of a dictionary that answers the spellchecker's membership,
+ * completion, and correction queries. Every engine in this package implements
+ * this interface so that they can be used interchangeably.
+ */
+public interface Dictionary {
+    /**
+     * Checks if a given word exists in the dictionary.
+     * The check is case-insensitive.
+     *
+     * @param word The word to check
+     * @return true if the word is in the dictionary, false otherwise
+     */
+    boolean isWord(String word);
+
+    /**
+     * Finds all possible valid words that can be formed by adding one character
+     * to the end of the given word.
+     *
+     * @param word The word to complete
+     * @return A list of valid words that can be formed by adding one character to
+     *         the end
+     */
+    List<String> getOneCharCompletions(String word);
+
+    /**
+     * Finds all valid words that can be formed by replacing the last character
+     * of the given word with a different character.
+     *
+     * @param word The word to correct
+     * @return A list of valid words that differ only in the last character
+     */
+    List<String> getOneCharEndCorrections(String word);
+
+    /**
+     * Finds all valid words that can be formed by replacing any single character
+     * in the given word with a different character.
+     *
+     * @param word The word to correct
+     * @return A list of valid words that differ by exactly one character
+     */
+    List<String> getOneCharCorrections(String word);
+}
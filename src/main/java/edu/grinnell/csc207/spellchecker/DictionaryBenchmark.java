@@ -0,0 +1,216 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * A rough benchmark comparing the dictionary engines on build time, retained
+ * heap per word, and isWord throughput, and the fuzzy engines on build time,
+ * retained heap, and correction latency across word lengths and distances. Heap
+ * usage is measured as the change in used memory across a garbage collection,
+ * so run it with a fixed heap (for example -Xms2g -Xmx2g) and treat the numbers
+ * as estimates.
+ */
+public class DictionaryBenchmark {
+    /** The path to the dictionary file. */
+    private static final String DICT_PATH = "words_alpha.txt";
+
+    /** The number of queries in the isWord workload. */
+    private static final int NUM_QUERIES = 1_000_000;
+
+    /** The number of timed passes over the isWord workload. */
+    private static final int NUM_ROUNDS = 5;
+
+    /** The word lengths of the fuzzy workloads. */
+    private static final int[] FUZZY_LENGTHS = {4, 8, 12};
+
+    /** The largest edit distance of the fuzzy workloads. */
+    private static final int MAX_FUZZY_DISTANCE = 2;
+
+    /** The number of queries in each fuzzy workload. */
+    private static final int NUM_FUZZY_QUERIES = 200;
+
+    /** The number of timed passes over each fuzzy workload. */
+    private static final int NUM_FUZZY_ROUNDS = 3;
+
+    /**
+     * @return the number of bytes of heap currently in use, after a collection
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Builds a mix of dictionary words and words with one letter changed, so
+     * that roughly half of the queries miss.
+     *
+     * @param dict the dictionary words
+     * @return the query workload
+     */
+    private static String[] queries(List<String> dict) {
+        Random random = new Random(207);
+        String[] queries = new String[NUM_QUERIES];
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            char[] word = dict.get(random.nextInt(dict.size())).toCharArray();
+            if (random.nextBoolean()) {
+                word[random.nextInt(word.length)] = (char) ('a' + random.nextInt(26));
+            }
+            queries[i] = new String(word);
+        }
+        return queries;
+    }
+
+    /**
+     * Builds one engine and reports its footprint and lookup throughput.
+     *
+     * @param name the name of the engine
+     * @param builder builds the engine from the dictionary words
+     * @param dict the dictionary words
+     * @param queries the query workload
+     */
+    private static void run(String name, Function<List<String>, Dictionary> builder,
+            List<String> dict, String[] queries) {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        Dictionary dictionary = builder.apply(dict);
+        long buildNanos = System.nanoTime() - start;
+        long bytes = usedHeap() - before;
+
+        int hits = 0;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < NUM_ROUNDS; round++) {
+            start = System.nanoTime();
+            for (String query : queries) {
+                if (dictionary.isWord(query)) {
+                    hits++;
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("%-12s build %7.1f ms  heap %8.1f KB  %6.1f bytes/word"
+                + "  isWord %6.1f ns/op  (%d hits)%n",
+                name, buildNanos / 1e6, bytes / 1024.0, (double) bytes / dict.size(),
+                (double) best / queries.length, hits / NUM_ROUNDS);
+    }
+
+    /**
+     * Picks dictionary words of one length and changes one letter of each.
+     *
+     * @param dict the dictionary words
+     * @param length the length of the query words
+     * @return the query workload, empty if no word has the given length
+     */
+    private static String[] fuzzyQueries(List<String> dict, int length) {
+        List<String> candidates = new ArrayList<>();
+        for (String word : dict) {
+            if (word.length() == length) {
+                candidates.add(word.toLowerCase());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return new String[0];
+        }
+        Random random = new Random(length);
+        String[] queries = new String[NUM_FUZZY_QUERIES];
+        for (int i = 0; i < NUM_FUZZY_QUERIES; i++) {
+            char[] word = candidates.get(random.nextInt(candidates.size())).toCharArray();
+            word[random.nextInt(length)] = (char) ('a' + random.nextInt(26));
+            queries[i] = new String(word);
+        }
+        return queries;
+    }
+
+    /**
+     * Builds one fuzzy engine and reports its footprint.
+     *
+     * @param name the name of the engine
+     * @param builder builds the engine from the dictionary words
+     * @param dict the dictionary words
+     * @return the engine
+     */
+    private static FuzzyIndex buildFuzzy(String name, Function<List<String>, FuzzyIndex> builder,
+            List<String> dict) {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        FuzzyIndex index = builder.apply(dict);
+        long buildNanos = System.nanoTime() - start;
+        long bytes = usedHeap() - before;
+        System.out.printf("%-12s build %7.1f ms  heap %8.1f KB  %6.1f bytes/word%n",
+                name, buildNanos / 1e6, bytes / 1024.0, (double) bytes / dict.size());
+        return index;
+    }
+
+    /**
+     * Reports the correction latency of every fuzzy engine for each word length
+     * and distance.
+     *
+     * @param engines the engines by name
+     * @param dict the dictionary words
+     */
+    private static void runFuzzy(Map<String, FuzzyIndex> engines, List<String> dict) {
+        for (int length : FUZZY_LENGTHS) {
+            String[] queries = fuzzyQueries(dict, length);
+            if (queries.length == 0) {
+                continue;
+            }
+            for (int distance = 1; distance <= MAX_FUZZY_DISTANCE; distance++) {
+                for (Map.Entry<String, FuzzyIndex> engine : engines.entrySet()) {
+                    FuzzyIndex index = engine.getValue();
+                    long suggestions = 0;
+                    long best = Long.MAX_VALUE;
+                    for (int round = 0; round <= NUM_FUZZY_ROUNDS; round++) {
+                        // Round 0 is an untimed warm-up
+                        suggestions = 0;
+                        long start = System.nanoTime();
+                        for (String query : queries) {
+                            suggestions += index.getCorrections(query, distance).size();
+                        }
+                        if (round > 0) {
+                            best = Math.min(best, System.nanoTime() - start);
+                        }
+                    }
+                    System.out.printf("%-12s length %2d  distance %d  %9.1f us/op"
+                            + "  (%.1f suggestions/op)%n",
+                            engine.getKey(), length, distance, best / 1e3 / queries.length,
+                            (double) suggestions / queries.length);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the benchmark over every engine.
+     *
+     * @param args Command line arguments: [dictionary file]
+     * @throws IOException If the dictionary file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        String path = args.length > 0 ? args[0] : DICT_PATH;
+        List<String> dict = new ArrayList<>(Files.readAllLines(Paths.get(path)));
+        String[] queries = queries(dict);
+
+        run("trie", SpellChecker::new, dict, queries);
+        run("dawg", DawgDictionary::fromWords, dict, queries);
+        run("double-array", DoubleArrayDictionary::fromWords, dict, queries);
+        run("louds", LoudsDictionary::fromWords, dict, queries);
+
+        Map<String, FuzzyIndex> engines = new LinkedHashMap<>();
+        engines.put("trie", buildFuzzy("trie", SpellChecker::new, dict));
+        engines.put("deletions", buildFuzzy("deletions",
+                words -> DeletionIndex.build(words, MAX_FUZZY_DISTANCE), dict));
+        engines.put("bk-tree", buildFuzzy("bk-tree", BkTree::fromWords, dict));
+        runFuzzy(engines, dict);
+    }
+}
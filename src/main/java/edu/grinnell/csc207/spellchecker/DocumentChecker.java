@@ -0,0 +1,288 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Checks the spelling of whole documents of any size in constant memory. The
+ * document is scanned in large chunks, each word is looked up in place in the
+ * chunk, and every misspelling is handed to a consumer as soon as it is found.
+ *
+ * <p>A word is a maximal run of ASCII letters and non-ASCII bytes, so that a
+ * UTF-8 word such as "naïve" is reported whole rather than split; everything
+ * else, including apostrophes and hyphens, separates words. Offsets and lengths
+ * are in bytes.
+ */
+public class DocumentChecker {
+    /** The size in bytes of the chunks a stream is read in. */
+    private static final int CHUNK_BYTES = 1 << 16;
+
+    /**
+     * The size in bytes of the windows a file is mapped in, and the length
+     * beyond which a single word is split. Windows are left to the collector
+     * to unmap, so they are kept small enough that the few a check has used
+     * since the last collection take little address space.
+     */
+    static final int WINDOW_BYTES = 1 << 22;
+
+    /** The smallest range of a file worth checking in a task of its own. */
+    private static final long MIN_RANGE_BYTES = 1L << 20;
+
+    /**
+     * The largest range of a file checked in one task, which bounds the
+     * misspellings a task holds until they are passed on.
+     */
+    private static final long MAX_RANGE_BYTES = 1L << 24;
+
+    /** The number of ranges per thread that are checked at once, for balance. */
+    private static final int RANGES_PER_THREAD = 4;
+
+    /** The number of bytes read at a time when looking for a word boundary. */
+    private static final int BOUNDARY_SCAN_BYTES = 256;
+
+    /** The dictionary to check words against. */
+    private final SpellChecker checker;
+
+    /**
+     * @param checker the dictionary to check words against
+     */
+    public DocumentChecker(SpellChecker checker) {
+        this.checker = checker;
+    }
+
+    /**
+     * Checks a file by mapping it into memory one window at a time.
+     *
+     * @param path the file to check
+     * @param sink receives each misspelling, in order of offset
+     * @throws IOException If the file cannot be read
+     */
+    public void check(Path path, Consumer<Misspelling> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            check(channel, 0, channel.size(), sink);
+        }
+    }
+
+    /**
+     * Checks a file on all cores. The file is split into byte ranges whose ends
+     * are moved forward to the next word boundary, each range is checked in
+     * its own fork-join task against the shared dictionary, and the reports of
+     * the ranges are passed on in order as soon as all earlier ranges are done.
+     * Only a few ranges per thread are in flight at once, and the next one is
+     * forked when the earliest has been passed on, so the misspellings held at
+     * any time are bounded however large the file is.
+     *
+     * @param path the file to check
+     * @param sink receives each misspelling, in order of offset
+     * @throws IOException If the file cannot be read
+     */
+    public void checkParallel(Path path, Consumer<Misspelling> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int maxInFlight = ForkJoinPool.getCommonPoolParallelism() * RANGES_PER_THREAD;
+            long rangeBytes = Math.max(MIN_RANGE_BYTES,
+                    Math.min(MAX_RANGE_BYTES, size / maxInFlight));
+            Deque<RangeTask> inFlight = new ArrayDeque<>();
+            long from = 0;
+            while (from < size || !inFlight.isEmpty()) {
+                while (from < size && inFlight.size() < maxInFlight) {
+                    long to = size - from <= rangeBytes ? size
+                            : nextBoundary(channel, from + rangeBytes);
+                    RangeTask task = new RangeTask(channel, from, to);
+                    task.fork();
+                    inFlight.add(task);
+                    from = to;
+                }
+                try {
+                    inFlight.remove().join().forEach(sink);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param channel the file
+     * @param position an offset in the file
+     * @return the offset of the first byte at or after position that is not part
+     *         of a word, or the size of the file if there is none
+     * @throws IOException If the file cannot be read
+     */
+    private static long nextBoundary(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_BYTES);
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (!isWordByte(buffer.get(i))) {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+    }
+
+    /** Checks one range of a file and collects its misspellings. */
+    @SuppressWarnings("serial")
+    private class RangeTask extends RecursiveTask<List<Misspelling>> {
+        /** The file to check. */
+        private final FileChannel channel;
+        /** The offset of the first byte to check. */
+        private final long from;
+        /** The offset after the last byte to check. */
+        private final long to;
+
+        /**
+         * @param channel the file to check
+         * @param from the offset of the first byte to check
+         * @param to the offset after the last byte to check
+         */
+        RangeTask(FileChannel channel, long from, long to) {
+            this.channel = channel;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Misspelling> compute() {
+            List<Misspelling> misspellings = new ArrayList<>();
+            try {
+                check(channel, from, to, misspellings::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return misspellings;
+        }
+    }
+
+    /**
+     * Checks a range of a file by mapping it into memory one window at a time.
+     * The range should start and end on word boundaries.
+     *
+     * @param channel the file to check
+     * @param from the offset of the first byte to check
+     * @param to the offset after the last byte to check
+     * @param sink receives each misspelling, in order of offset
+     * @throws IOException If the file cannot be read
+     */
+    void check(FileChannel channel, long from, long to, Consumer<Misspelling> sink)
+            throws IOException {
+        long position = from;
+        while (position < to) {
+            int size = (int) Math.min(WINDOW_BYTES, to - position);
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            boolean atEnd = position + size == to;
+            int consumed = scan(window, size, position, atEnd, sink);
+            if (consumed == 0) {
+                // A single word fills the window, so split it rather than grow
+                consumed = scan(window, size, position, true, sink);
+            }
+            position += consumed;
+        }
+    }
+
+    /**
+     * Checks a stream, reading it in chunks and checking whatever each read
+     * returns, so that on a pipe or socket misspellings are reported as the
+     * text arrives. Only the bytes of a word cut off at the end of a read are
+     * carried over to the next one. A word is split after {@value #WINDOW_BYTES}
+     * bytes, as when checking a file, so both report the same misspellings.
+     *
+     * @param in the stream to check; it is not closed
+     * @param sink receives each misspelling, in order of offset
+     * @throws IOException If the stream cannot be read
+     */
+    public void check(InputStream in, Consumer<Misspelling> sink) throws IOException {
+        byte[] chunk = new byte[CHUNK_BYTES];
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        long offset = 0;
+        int filled = 0;
+        boolean atEnd = false;
+        while (!atEnd) {
+            int read = in.read(chunk, filled, chunk.length - filled);
+            if (read == -1) {
+                atEnd = true;
+            } else {
+                filled += read;
+            }
+            int consumed = scan(buffer, filled, offset, atEnd, sink);
+            if (consumed == 0 && filled == chunk.length) {
+                if (chunk.length < WINDOW_BYTES) {
+                    // A single word fills the chunk, so grow it up to a window
+                    chunk = Arrays.copyOf(chunk, Math.min(WINDOW_BYTES, 2 * chunk.length));
+                    buffer = ByteBuffer.wrap(chunk);
+                    continue;
+                }
+                consumed = scan(buffer, filled, offset, true, sink);
+            }
+            System.arraycopy(chunk, consumed, chunk, 0, filled - consumed);
+            filled -= consumed;
+            offset += consumed;
+        }
+    }
+
+    /**
+     * Checks every word of a buffer.
+     *
+     * @param buffer the buffer holding the text, from index 0
+     * @param size the number of bytes of text in the buffer
+     * @param offset the offset in the document of the start of the buffer
+     * @param atEnd whether the text ends with the buffer; if not, a word running
+     *        up to the end of the buffer may continue and is left unchecked
+     * @param sink receives each misspelling, in order of offset
+     * @return the number of bytes scanned, which is the start of the word left
+     *         unchecked if there is one
+     */
+    private int scan(ByteBuffer buffer, int size, long offset, boolean atEnd,
+            Consumer<Misspelling> sink) {
+        int i = 0;
+        while (i < size) {
+            if (!isWordByte(buffer.get(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < size && isWordByte(buffer.get(i))) {
+                i++;
+            }
+            if (i == size && !atEnd) {
+                return start;
+            }
+            if (!checker.isWord(buffer, start, i - start)) {
+                byte[] bytes = new byte[i - start];
+                ByteBuffer word = buffer.duplicate();
+                word.position(start);
+                word.get(bytes);
+                sink.accept(new Misspelling(offset + start, bytes.length,
+                        new String(bytes, StandardCharsets.UTF_8)));
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @param b a byte of a document
+     * @return true if b is an ASCII letter or part of a non-ASCII character
+     */
+    static boolean isWordByte(byte b) {
+        return b < 0 || (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+}
@@ -0,0 +1,201 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A read-only dictionary stored as a double-array trie. The whole trie lives in
+ * two flat int arrays: the transition from state s on code c goes to
+ * base[s] + c, and is valid only if check[base[s] + c] == s. Following a letter
+ * is therefore an add, a bounds check and one comparison, with no pointers.
+ *
+ * <p>Code 0 is reserved as the end-of-word marker, so a state is final when its
+ * code 0 slot is owned by it. The letters 'a' to 'z' use codes 1 to 26.
+ */
+public class DoubleArrayDictionary extends AutomatonDictionary {
+    /** The code of the end-of-word marker. */
+    private static final int END_CODE = 0;
+
+    /** The state of the root, which is always stored in the first slot. */
+    private static final int ROOT = 0;
+
+    /** The base offset of each state. */
+    private final int[] base;
+    /** The state owning each slot, or -1 if the slot is unused. */
+    private final int[] check;
+
+    /**
+     * @param base the base offset of each state
+     * @param check the state owning each slot
+     */
+    private DoubleArrayDictionary(int[] base, int[] check) {
+        this.base = base;
+        this.check = check;
+    }
+
+    /**
+     * @param filename the path to the dictionary file
+     * @return a DoubleArrayDictionary over the words found in the given file.
+     */
+    public static DoubleArrayDictionary fromFile(String filename) throws IOException {
+        return fromWords(Files.readAllLines(Paths.get(filename)));
+    }
+
+    /**
+     * Builds a double-array trie over the given words. Nodes are placed in
+     * breadth-first order; each node covers a range of the sorted words sharing
+     * its prefix, and is given the first base at which all of its codes land in
+     * free slots.
+     *
+     * @param dict A list of words to be used as the dictionary
+     * @return a DoubleArrayDictionary over the given words
+     * @throws IllegalArgumentException If a word is not made of letters
+     */
+    public static DoubleArrayDictionary fromWords(List<String> dict) {
+        return new Builder(sortedWords(dict)).build();
+    }
+
+    /**
+     * @return the number of slots in each of the two arrays
+     */
+    public int size() {
+        return check.length;
+    }
+
+    @Override
+    int root() {
+        return ROOT;
+    }
+
+    @Override
+    int child(int state, int letter) {
+        int slot = base[state] + letter + 1;
+        if (slot < check.length && check[slot] == state) {
+            return slot;
+        }
+        return NO_STATE;
+    }
+
+    @Override
+    boolean isFinal(int state) {
+        int slot = base[state] + END_CODE;
+        return slot < check.length && check[slot] == state;
+    }
+
+    /** Places the nodes of the trie over a sorted word array into the two arrays. */
+    private static class Builder {
+        /** The distinct words of the dictionary in sorted order. */
+        private final String[] words;
+        /** The slots that have been given to a state so far. */
+        private final BitSet used = new BitSet();
+        /** The base offset of each state. */
+        private int[] base = new int[1024];
+        /** The state owning each slot. */
+        private int[] check = new int[1024];
+        /** The highest slot in use. */
+        private int maxSlot;
+        /** A slot below which every slot is in use. */
+        private int firstFree;
+
+        /**
+         * @param words the distinct words of the dictionary in sorted order
+         */
+        Builder(String[] words) {
+            this.words = words;
+            Arrays.fill(check, -1);
+        }
+
+        /**
+         * @return the frozen dictionary
+         */
+        DoubleArrayDictionary build() {
+            used.set(ROOT);
+            // Each entry is {state, first word, end of words, depth}
+            ArrayDeque<int[]> queue = new ArrayDeque<>();
+            queue.add(new int[] {ROOT, 0, words.length, 0});
+            int[] codes = new int[NUM_LETTERS + 1];
+            int[] starts = new int[NUM_LETTERS + 2];
+            while (!queue.isEmpty()) {
+                int[] node = queue.poll();
+                int state = node[0];
+                int lo = node[1];
+                int hi = node[2];
+                int depth = node[3];
+
+                // Group the words below this node by their letter at depth
+                int count = 0;
+                if (lo < hi && words[lo].length() == depth) {
+                    codes[count] = END_CODE;
+                    starts[count++] = lo++;
+                }
+                for (int i = lo; i < hi; i++) {
+                    char c = words[i].charAt(depth);
+                    int code = c - 'a' + 1;
+                    if (code <= END_CODE || code > NUM_LETTERS) {
+                        throw new IllegalArgumentException("Not a letter: " + c);
+                    }
+                    if (count == 0 || codes[count - 1] != code) {
+                        codes[count] = code;
+                        starts[count++] = i;
+                    }
+                }
+                starts[count] = hi;
+
+                int b = findBase(codes, count);
+                base[state] = b;
+                for (int i = 0; i < count; i++) {
+                    int slot = b + codes[i];
+                    used.set(slot);
+                    check[slot] = state;
+                    maxSlot = Math.max(maxSlot, slot);
+                    if (codes[i] != END_CODE) {
+                        queue.add(new int[] {slot, starts[i], starts[i + 1], depth + 1});
+                    }
+                }
+            }
+            return new DoubleArrayDictionary(Arrays.copyOf(base, maxSlot + 1),
+                    Arrays.copyOf(check, maxSlot + 1));
+        }
+
+        /**
+         * @param codes the codes a node has transitions on, in increasing order
+         * @param count the number of codes
+         * @return the smallest base for which every code lands in a free slot
+         */
+        private int findBase(int[] codes, int count) {
+            int first = codes[0];
+            firstFree = used.nextClearBit(firstFree);
+            int slot = used.nextClearBit(Math.max(firstFree, first + 1));
+            while (true) {
+                int b = slot - first;
+                boolean fits = true;
+                for (int i = 1; i < count && fits; i++) {
+                    fits = !used.get(b + codes[i]);
+                }
+                if (fits) {
+                    ensureCapacity(b + NUM_LETTERS + 1);
+                    return b;
+                }
+                slot = used.nextClearBit(slot + 1);
+            }
+        }
+
+        /**
+         * @param size the number of slots needed
+         */
+        private void ensureCapacity(int size) {
+            if (size > check.length) {
+                int capacity = Math.max(size, check.length * 2);
+                int old = check.length;
+                base = Arrays.copyOf(base, capacity);
+                check = Arrays.copyOf(check, capacity);
+                Arrays.fill(check, old, capacity, -1);
+            }
+        }
+    }
+}
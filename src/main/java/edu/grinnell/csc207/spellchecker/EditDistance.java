@@ -0,0 +1,61 @@
+package edu.grinnell.csc207.spellchecker;
+
+/**
+ * Bounded edit distances between words, for verifying the candidates of the
+ * fuzzy indexes.
+ */
+final class EditDistance {
+    private EditDistance() {
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings, counting
+     * insertions, deletions and substitutions. Only the cells of the table
+     * within limit of the diagonal are computed, and the computation stops as
+     * soon as a whole row exceeds limit.
+     *
+     * @param a a string
+     * @param b another string
+     * @param limit the largest distance of interest, at least 0
+     * @return the distance between a and b if it is at most limit, and
+     *         limit + 1 otherwise
+     */
+    static int levenshtein(CharSequence a, CharSequence b, int limit) {
+        int n = a.length();
+        int m = b.length();
+        int out = limit + 1;
+        if (Math.abs(n - m) > limit) {
+            return out;
+        }
+        int[] prev = new int[m + 1];
+        int[] cur = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            prev[j] = Math.min(j, out);
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - limit);
+            int to = Math.min(m, i + limit);
+            char c = a.charAt(i - 1);
+            cur[0] = Math.min(i, out);
+            // The cells just outside the band are read by this row or the next
+            cur[from - 1] = from == 1 ? cur[0] : out;
+            if (to < m) {
+                cur[to + 1] = out;
+            }
+            int best = cur[from - 1];
+            for (int j = from; j <= to; j++) {
+                int cost = Math.min(prev[j - 1] + (b.charAt(j - 1) == c ? 0 : 1),
+                        Math.min(prev[j], cur[j - 1]) + 1);
+                cur[j] = Math.min(cost, out);
+                best = Math.min(best, cur[j]);
+            }
+            if (best > limit) {
+                return out;
+            }
+            int[] swap = prev;
+            prev = cur;
+            cur = swap;
+        }
+        return prev[m];
+    }
+}
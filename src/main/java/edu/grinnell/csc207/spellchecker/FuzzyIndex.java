@@ -0,0 +1,24 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.util.List;
+
+/**
+ * An engine that answers approximate queries over a dictionary. The engines
+ * trade memory for latency differently, so each workload can pick the one that
+ * suits it; all of them return the same suggestions for the same query.
+ */
+public interface FuzzyIndex {
+    /**
+     * Finds all valid words within a Levenshtein distance of the given word.
+     * The check is case-insensitive.
+     *
+     * @param word The word to correct
+     * @param maxDistance The largest number of insertions, deletions and
+     *        substitutions allowed
+     * @return The words other than word itself within maxDistance of it,
+     *         closest first and in alphabetical order within each distance
+     * @throws IllegalArgumentException If the engine cannot search as far as
+     *         maxDistance
+     */
+    List<String> getCorrections(String word, int maxDistance);
+}
@@ -0,0 +1,149 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.util.Arrays;
+
+/**
+ * The letter keys of a keyboard, as a cost model for typing one letter in place
+ * of another: typing the intended key costs nothing, hitting a key next to it is
+ * a cheap slip, and any other key is an expensive one.
+ *
+ * <p>A layout is given by its rows of letter keys from top to bottom, each row
+ * starting half a key to the right of the one above it. Two keys are adjacent
+ * if they are next to each other in a row, or touch in neighbouring rows.
+ *
+ * <p>{@link SpellChecker#getKeyboardCorrections(String, KeyboardLayout, int)}
+ * only asks a layout for {@link #cost}, so a subclass can plug in another cost
+ * model, such as one weighing slips by the distance between keys.
+ */
+public class KeyboardLayout {
+    /** The cost of typing the key next to the intended one. */
+    public static final int ADJACENT_COST = 1;
+
+    /** The cost of typing any other key than the intended one. */
+    public static final int OTHER_COST = 3;
+
+    /** The standard US and UK QWERTY layout. */
+    public static final KeyboardLayout QWERTY =
+            new KeyboardLayout("qwertyuiop", "asdfghjkl", "zxcvbnm");
+
+    /** The number of low bits of a choice holding the letter index. */
+    static final int LETTER_BITS = 5;
+
+    /** Bit j of entry i is set if the i-th and j-th letters are adjacent. */
+    private final int[] neighbours = new int[AutomatonDictionary.NUM_LETTERS];
+
+    /** The choices for each letter typed, ranked on first use. */
+    private volatile long[][] choices;
+
+    /**
+     * @param rows the letters of each row of keys, from top to bottom
+     * @throws IllegalArgumentException If a row has a non-letter, or a letter
+     *         appears twice
+     */
+    public KeyboardLayout(String... rows) {
+        int seen = 0;
+        for (int r = 0; r < rows.length; r++) {
+            for (int c = 0; c < rows[r].length(); c++) {
+                int index = Character.toLowerCase(rows[r].charAt(c)) - 'a';
+                if (index < 0 || index >= AutomatonDictionary.NUM_LETTERS) {
+                    throw new IllegalArgumentException("Not a letter: " + rows[r].charAt(c));
+                }
+                if ((seen & (1 << index)) != 0) {
+                    throw new IllegalArgumentException("Repeated key: " + rows[r].charAt(c));
+                }
+                seen |= 1 << index;
+                if (c > 0) {
+                    connect(index, rows[r].charAt(c - 1));
+                }
+                if (r > 0) {
+                    // Shifted half a key right, a key touches the keys above it
+                    // in the same column and the one after
+                    for (int above = c; above <= c + 1 && above < rows[r - 1].length(); above++) {
+                        connect(index, rows[r - 1].charAt(above));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param index the index of a letter
+     * @param other another letter, already known to be a letter key
+     */
+    private void connect(int index, char other) {
+        int otherIndex = Character.toLowerCase(other) - 'a';
+        neighbours[index] |= 1 << otherIndex;
+        neighbours[otherIndex] |= 1 << index;
+    }
+
+    /**
+     * @param c a character
+     * @return the mask of the letters whose keys are adjacent to c's, with bit i
+     *         for the i-th letter, or 0 if c is not a letter key
+     */
+    private int neighbours(char c) {
+        int index = Character.toLowerCase(c) - 'a';
+        if (index < 0 || index >= AutomatonDictionary.NUM_LETTERS) {
+            return 0;
+        }
+        return neighbours[index];
+    }
+
+    /**
+     * Ranks the letters that could have been meant when a character was typed,
+     * by the cost of typing it for each of them. The ranking only depends on
+     * {@link #cost}, and is worked out once per letter.
+     *
+     * @param typed the character typed
+     * @return a choice for every letter, packing the cost of typing typed for
+     *         it above its index in the low {@value #LETTER_BITS} bits, in
+     *         increasing order so that the cheapest come first
+     */
+    long[] choices(char typed) {
+        int index = Character.toLowerCase(typed) - 'a';
+        if (index < 0 || index >= AutomatonDictionary.NUM_LETTERS) {
+            return rank(typed);
+        }
+        long[][] ranked = choices;
+        if (ranked == null) {
+            ranked = new long[AutomatonDictionary.NUM_LETTERS][];
+            for (int i = 0; i < ranked.length; i++) {
+                ranked[i] = rank((char) ('a' + i));
+            }
+            choices = ranked;
+        }
+        return ranked[index];
+    }
+
+    /**
+     * @param typed the character typed
+     * @return the choices for typed, as in {@link #choices}
+     */
+    private long[] rank(char typed) {
+        long[] ranked = new long[AutomatonDictionary.NUM_LETTERS];
+        for (int i = 0; i < ranked.length; i++) {
+            ranked[i] = (long) cost(typed, (char) ('a' + i)) << LETTER_BITS | i;
+        }
+        Arrays.sort(ranked);
+        return ranked;
+    }
+
+    /**
+     * @param typed the character typed
+     * @param intended the character meant
+     * @return 0 if they are the same letter, {@value #ADJACENT_COST} if their
+     *         keys are adjacent, and {@value #OTHER_COST} otherwise; an
+     *         overriding method must not return a negative cost
+     */
+    public int cost(char typed, char intended) {
+        char t = Character.toLowerCase(typed);
+        char i = Character.toLowerCase(intended);
+        if (t == i) {
+            return 0;
+        }
+        int index = i - 'a';
+        boolean adjacent = index >= 0 && index < AutomatonDictionary.NUM_LETTERS
+                && (neighbours(t) & (1 << index)) != 0;
+        return adjacent ? ADJACENT_COST : OTHER_COST;
+    }
+}
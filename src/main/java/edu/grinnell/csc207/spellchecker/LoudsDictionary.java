@@ -0,0 +1,178 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A read-only dictionary stored as a succinct LOUDS (level-order unary degree
+ * sequence) trie. Nodes are numbered in breadth-first order and the shape of the
+ * trie is a single bit vector in which every node, in order, writes one 1 per
+ * child followed by a 0. With a select index on that vector the children of a
+ * node can be found without any pointers.
+ *
+ * <p>Each node costs two bits of shape, one bit marking it as the end of a word
+ * and five bits for the letter on the edge into it, plus the rank index: a
+ * little over one byte per node.
+ */
+public class LoudsDictionary extends AutomatonDictionary {
+    /** The number of bits used to store each edge label. */
+    private static final int LABEL_BITS = 5;
+
+    /** The mask of the bits of an edge label. */
+    private static final int LABEL_MASK = (1 << LABEL_BITS) - 1;
+
+    /** The number of the root node. */
+    private static final int ROOT = 0;
+
+    /** The degree sequence of the nodes in breadth-first order. */
+    private final BitVector louds;
+    /** Whether each node represents the end of a valid word. */
+    private final BitVector terminals;
+    /** The letter on the edge into each node, packed LABEL_BITS bits apiece. */
+    private final long[] labels;
+    /** The number of nodes. */
+    private final int numNodes;
+
+    /**
+     * @param louds the degree sequence of the nodes in breadth-first order
+     * @param terminals whether each node represents the end of a valid word
+     * @param labels the letter on the edge into each node, packed
+     * @param numNodes the number of nodes
+     */
+    private LoudsDictionary(BitVector louds, BitVector terminals, long[] labels,
+            int numNodes) {
+        this.louds = louds;
+        this.terminals = terminals;
+        this.labels = labels;
+        this.numNodes = numNodes;
+    }
+
+    /**
+     * @param filename the path to the dictionary file
+     * @return a LoudsDictionary over the words found in the given file.
+     */
+    public static LoudsDictionary fromFile(String filename) throws IOException {
+        return fromWords(Files.readAllLines(Paths.get(filename)));
+    }
+
+    /**
+     * Builds a LOUDS trie over the given words by visiting the ranges of the
+     * sorted word list that share a prefix in breadth-first order.
+     *
+     * @param dict A list of words to be used as the dictionary
+     * @return a LoudsDictionary over the given words
+     * @throws IllegalArgumentException If a word is not made of letters
+     */
+    public static LoudsDictionary fromWords(List<String> dict) {
+        String[] words = sortedWords(dict);
+        BitSet louds = new BitSet();
+        BitSet terminals = new BitSet();
+        BitSet labels = new BitSet();
+        int position = 0;
+        int numNodes = 1;
+
+        // Each entry is {node, first word, end of words, depth}
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        queue.add(new int[] {ROOT, 0, words.length, 0});
+        while (!queue.isEmpty()) {
+            int[] node = queue.poll();
+            int lo = node[1];
+            int hi = node[2];
+            int depth = node[3];
+            if (lo < hi && words[lo].length() == depth) {
+                terminals.set(node[0]);
+                lo++;
+            }
+            while (lo < hi) {
+                // The words from lo to end share the child's letter
+                char c = words[lo].charAt(depth);
+                if (c < 'a' || c > 'z') {
+                    throw new IllegalArgumentException("Not a letter: " + c);
+                }
+                int end = lo + 1;
+                while (end < hi && words[end].charAt(depth) == c) {
+                    end++;
+                }
+                int child = numNodes++;
+                for (int b = 0; b < LABEL_BITS; b++) {
+                    if (((c - 'a') & (1 << b)) != 0) {
+                        labels.set(child * LABEL_BITS + b);
+                    }
+                }
+                louds.set(position++);
+                queue.add(new int[] {child, lo, end, depth + 1});
+                lo = end;
+            }
+            // The 0 closing the node's run of child bits
+            position++;
+        }
+        return new LoudsDictionary(new BitVector(louds.toLongArray(), position),
+                new BitVector(terminals.toLongArray(), numNodes),
+                labels.toLongArray(), numNodes);
+    }
+
+    /**
+     * @return the number of nodes of the trie
+     */
+    public int numNodes() {
+        return numNodes;
+    }
+
+    /**
+     * @return the number of bits used by the bit vectors and labels
+     */
+    public long sizeInBits() {
+        return louds.length() + terminals.length() + (long) numNodes * LABEL_BITS;
+    }
+
+    /**
+     * @param node a node number
+     * @return the letter on the edge into node
+     */
+    private int label(int node) {
+        long bit = (long) node * LABEL_BITS;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        long value = (word < labels.length ? labels[word] : 0) >>> shift;
+        if (shift + LABEL_BITS > Long.SIZE && word + 1 < labels.length) {
+            value |= labels[word + 1] << (Long.SIZE - shift);
+        }
+        return (int) (value & LABEL_MASK);
+    }
+
+    @Override
+    int root() {
+        return ROOT;
+    }
+
+    @Override
+    int child(int state, int letter) {
+        // The run of node v's child bits starts after the (v-1)-th zero, and
+        // since exactly v zeros precede it, the ones before it number start - v.
+        int start = state == ROOT ? 0 : louds.select0(state - 1) + 1;
+        int end = louds.nextZero(start);
+        int lo = start - state + 1;
+        int hi = lo + (end - start) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int label = label(mid);
+            if (label < letter) {
+                lo = mid + 1;
+            } else if (label > letter) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return NO_STATE;
+    }
+
+    @Override
+    boolean isFinal(int state) {
+        return terminals.get(state);
+    }
+}
@@ -0,0 +1,153 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A dictionary answered directly from a memory-mapped file written by
+ * {@link DawgDictionary#save}. Nothing is copied onto the heap: every query reads
+ * the automaton through the mapping, and all processes that map it share one copy
+ * in the operating system's page cache. Opening the file reads it once to check
+ * it, so that no lookup can fail or go astray on a damaged file.
+ *
+ * <p>The file is a header of five big-endian ints (magic, version, number of
+ * states, number of transitions, start state), then a (mask, offset) pair of
+ * ints for each state, then the target state of each transition, laid out as in
+ * {@link DawgDictionary}, then a CRC-32 of everything before it as a long.
+ * Version 1 files have no checksum, and are only checked for offsets and
+ * targets in range.
+ */
+public class MappedDictionary extends AutomatonDictionary {
+    /** The first int of every dictionary file, "DAWG" in ASCII. */
+    static final int MAGIC = 0x44415747;
+
+    /** The version of the file layout. */
+    static final int VERSION = 2;
+
+    /** The version of the file layout without a checksum. */
+    private static final int UNCHECKED_VERSION = 1;
+
+    /** The size in bytes of the file header. */
+    static final int HEADER_BYTES = 5 * Integer.BYTES;
+
+    /** The size in bytes of the record of each state. */
+    static final int STATE_BYTES = 2 * Integer.BYTES;
+
+    /** The mapped file. */
+    private final ByteBuffer buffer;
+    /** The byte offset of the first transition target. */
+    private final int targetsStart;
+    /** The start state. */
+    private final int rootState;
+
+    /**
+     * @param buffer the mapped file
+     * @param targetsStart the byte offset of the first transition target
+     * @param rootState the start state
+     */
+    private MappedDictionary(ByteBuffer buffer, int targetsStart, int rootState) {
+        this.buffer = buffer;
+        this.targetsStart = targetsStart;
+        this.rootState = rootState;
+    }
+
+    /**
+     * Maps a dictionary file read-only and checks its header, its checksum, and
+     * that every transition offset and target is in range.
+     *
+     * @param path the path to a file written by DawgDictionary.save
+     * @return a MappedDictionary over the automaton in the file
+     * @throws IOException If the file cannot be mapped or is not a valid
+     *         dictionary file
+     */
+    public static MappedDictionary open(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a dictionary file: " + path);
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION && version != UNCHECKED_VERSION) {
+            throw new IOException("Unsupported dictionary file version: " + version);
+        }
+        int numStates = buffer.getInt(8);
+        int numTransitions = buffer.getInt(12);
+        int rootState = buffer.getInt(16);
+        long targetsStart = HEADER_BYTES + (long) numStates * STATE_BYTES;
+        long end = targetsStart + (long) numTransitions * Integer.BYTES;
+        long size = version == VERSION ? end + Long.BYTES : end;
+        if (numStates <= 0 || numTransitions < 0 || size != buffer.capacity()
+                || rootState < 0 || rootState >= numStates) {
+            throw new IOException("Corrupt dictionary file: " + path);
+        }
+        if (version == VERSION) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().limit((int) end));
+            if (crc.getValue() != buffer.getLong((int) end)) {
+                throw new IOException("Corrupt dictionary file: " + path);
+            }
+        }
+        if (!inRange(buffer, numStates, numTransitions)) {
+            throw new IOException("Corrupt dictionary file: " + path);
+        }
+        return new MappedDictionary(buffer, (int) targetsStart, rootState);
+    }
+
+    /**
+     * @param buffer a mapped dictionary file whose header and size are valid
+     * @param numStates the number of states
+     * @param numTransitions the number of transitions
+     * @return whether every state has only letter and final bits, and its
+     *         transitions and their targets all lie within the file
+     */
+    private static boolean inRange(ByteBuffer buffer, int numStates, int numTransitions) {
+        for (int state = 0; state < numStates; state++) {
+            int record = HEADER_BYTES + state * STATE_BYTES;
+            int mask = buffer.getInt(record);
+            int offset = buffer.getInt(record + Integer.BYTES);
+            if ((mask & ~(DawgDictionary.FINAL_BIT | DawgDictionary.LETTER_MASK)) != 0
+                    || offset < 0 || offset > numTransitions
+                            - Integer.bitCount(mask & DawgDictionary.LETTER_MASK)) {
+                return false;
+            }
+        }
+        int targetsStart = HEADER_BYTES + numStates * STATE_BYTES;
+        for (int transition = 0; transition < numTransitions; transition++) {
+            int target = buffer.getInt(targetsStart + transition * Integer.BYTES);
+            if (target < 0 || target >= numStates) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    int root() {
+        return rootState;
+    }
+
+    @Override
+    int child(int state, int letter) {
+        int record = HEADER_BYTES + state * STATE_BYTES;
+        int mask = buffer.getInt(record);
+        int bit = 1 << letter;
+        if ((mask & bit) == 0) {
+            return NO_STATE;
+        }
+        int transition = buffer.getInt(record + Integer.BYTES)
+                + Integer.bitCount(mask & (bit - 1));
+        return buffer.getInt(targetsStart + transition * Integer.BYTES);
+    }
+
+    @Override
+    boolean isFinal(int state) {
+        return (buffer.getInt(HEADER_BYTES + state * STATE_BYTES)
+                & DawgDictionary.FINAL_BIT) != 0;
+    }
+}
@@ -0,0 +1,65 @@
+package edu.grinnell.csc207.spellchecker;
+
+/**
+ * A word of a document that is not in the dictionary, along with where it was
+ * found.
+ */
+public class Misspelling {
+    /** The offset in bytes of the word from the start of the document. */
+    private final long offset;
+    /** The length of the word in bytes. */
+    private final int length;
+    /** The word as it appears in the document. */
+    private final String word;
+
+    /**
+     * @param offset the offset in bytes of the word from the start of the document
+     * @param length the length of the word in bytes
+     * @param word the word as it appears in the document
+     */
+    public Misspelling(long offset, int length, String word) {
+        this.offset = offset;
+        this.length = length;
+        this.word = word;
+    }
+
+    /**
+     * @return the offset in bytes of the word from the start of the document
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the length of the word in bytes
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return the word as it appears in the document
+     */
+    public String getWord() {
+        return word;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Misspelling)) {
+            return false;
+        }
+        Misspelling that = (Misspelling) other;
+        return offset == that.offset && length == that.length && word.equals(that.word);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(offset) * 31 + word.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return offset + ":" + length + " " + word;
+    }
+}
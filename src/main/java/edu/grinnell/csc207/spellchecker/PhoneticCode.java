@@ -0,0 +1,356 @@
+package edu.grinnell.csc207.spellchecker;
+
+/**
+ * A compact sound-alike encoder in the Metaphone family. A word is reduced to
+ * up to {@value #MAX_LENGTH} consonant sounds, with a leading vowel kept as
+ * 'A', and spellings that sound alike share a code: "phone" and "fone" are both
+ * FN, and "night", "knight" and "nite" are all NT.
+ *
+ * <p>As in Double Metaphone, a word gets a primary code and an alternate code,
+ * which differ where a spelling has two common pronunciations, such as the TH
+ * of "thomas" or the G of "gem". Only the most common rules of English are
+ * kept, rather than Double Metaphone's rules for names from other languages.
+ * Codes are packed into ints, five bits per sound.
+ *
+ * <p>Codes drop vowels, so many words share one. To tell them apart, the
+ * encoder can also spell out the sounds of the primary pronunciation with its
+ * vowels, a long vowel in upper case and a short one in lower case: "phone"
+ * and "fone" are both FON, while "fine" is FIN and "fun" is FuN.
+ */
+final class PhoneticCode {
+    /** The largest number of sounds in a code. */
+    static final int MAX_LENGTH = 6;
+
+    /** The sounds of a code, packed as their index in this string plus one. */
+    private static final String SOUNDS = "A0FHJKLMNPRSTWXY";
+
+    /** The letters of the word, lower-cased, without other characters. */
+    private final char[] word;
+    /** The number of letters of the word. */
+    private final int length;
+
+    /** The primary code so far. */
+    private int primary;
+    /** The number of sounds in the primary code. */
+    private int primaryLength;
+    /** The alternate code so far. */
+    private int alternate;
+    /** The number of sounds in the alternate code. */
+    private int alternateLength;
+    /** The sounds of the primary pronunciation with vowels, or null if not wanted. */
+    private final StringBuilder sounds;
+
+    /**
+     * @param text the word to encode
+     * @param withSounds whether to spell out the sounds with vowels
+     */
+    private PhoneticCode(CharSequence text, boolean withSounds) {
+        sounds = withSounds ? new StringBuilder() : null;
+        word = new char[text.length()];
+        int n = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (c >= 'a' && c <= 'z') {
+                word[n++] = c;
+            }
+        }
+        length = n;
+    }
+
+    /**
+     * @param text a word
+     * @return the primary and alternate codes of the word, which are equal if it
+     *         has only one pronunciation, and 0 for a word without letters
+     */
+    static int[] encode(CharSequence text) {
+        PhoneticCode code = new PhoneticCode(text, false);
+        code.encode();
+        return new int[] {code.primary, code.alternate};
+    }
+
+    /**
+     * @param text a word
+     * @return the sounds of the primary pronunciation of the word up to
+     *         {@value #MAX_LENGTH} consonants, with the consonants as in the
+     *         code and each vowel sound as its letter, upper case if long
+     */
+    static String sounds(CharSequence text) {
+        PhoneticCode code = new PhoneticCode(text, true);
+        code.encode();
+        return code.sounds.toString();
+    }
+
+    /**
+     * @param i an index into the word
+     * @return the letter at i, or 0 if i is outside the word
+     */
+    private char at(int i) {
+        return i >= 0 && i < length ? word[i] : 0;
+    }
+
+    /**
+     * @param c a letter, or 0
+     * @return true if c is a vowel
+     */
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+
+    /**
+     * @param c a letter, or 0
+     * @return true if c softens a preceding C or G
+     */
+    private static boolean isSoftening(char c) {
+        return c == 'e' || c == 'i' || c == 'y';
+    }
+
+    /**
+     * @param sound the sound to add to both codes
+     */
+    private void add(char sound) {
+        add(sound, sound);
+    }
+
+    /**
+     * @param primarySound the sound to add to the primary code, or 0 for none
+     * @param alternateSound the sound to add to the alternate code, or 0 for none
+     */
+    private void add(char primarySound, char alternateSound) {
+        if (primarySound != 0 && primaryLength < MAX_LENGTH) {
+            primary = primary << 5 | (SOUNDS.indexOf(primarySound) + 1);
+            primaryLength++;
+            // 'A' only marks a leading vowel, which is spelled out as itself
+            if (sounds != null && primarySound != 'A') {
+                sounds.append(primarySound);
+            }
+        }
+        if (alternateSound != 0 && alternateLength < MAX_LENGTH) {
+            alternate = alternate << 5 | (SOUNDS.indexOf(alternateSound) + 1);
+            alternateLength++;
+        }
+    }
+
+    /**
+     * Spells out the vowel sound of the group of vowels starting at a letter,
+     * if sounds are wanted. A group of two is long, as is a single vowel ending
+     * the word, followed by GH, or followed by one consonant and a final E. A
+     * final E after a consonant is silent unless it is the only vowel.
+     *
+     * @param i the index of the first vowel of the group
+     */
+    private void addVowel(int i) {
+        if (sounds == null || isVowel(at(i - 1))) {
+            return;
+        }
+        char c = word[i];
+        char next = at(i + 1);
+        if (isVowel(next)) {
+            boolean oo = c == 'o' && (next == 'o' || next == 'u');
+            sounds.append(oo ? 'U' : Character.toUpperCase(c));
+        } else if (c == 'e' && i == length - 1 && hasVowelBefore(i)) {
+            return;
+        } else if (next == 0 || (next == 'g' && at(i + 2) == 'h')
+                || (at(i + 2) == 'e' && i + 3 == length)) {
+            sounds.append(Character.toUpperCase(c));
+        } else {
+            sounds.append(c);
+        }
+    }
+
+    /**
+     * @param i an index into the word
+     * @return true if a vowel or a vowel Y comes before i
+     */
+    private boolean hasVowelBefore(int i) {
+        for (int j = i - 1; j >= 0; j--) {
+            if (isVowel(word[j]) || (word[j] == 'y' && !isVowel(at(j + 1)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Encodes the word, one letter or group of letters at a time. */
+    private void encode() {
+        if (length == 0) {
+            return;
+        }
+        int i = 0;
+        char first = at(0);
+        char second = at(1);
+        if ((second == 'n' && (first == 'g' || first == 'k' || first == 'p'))
+                || (first == 'w' && second == 'r') || (first == 'p' && second == 's')) {
+            // The first letter of GN, KN, PN, WR and PS is silent
+            i = 1;
+        } else if (first == 'x') {
+            add('S');
+            i = 1;
+        } else if (first == 'w' && second == 'h') {
+            add('W');
+            i = 2;
+        }
+
+        while (i < length && (primaryLength < MAX_LENGTH || alternateLength < MAX_LENGTH)) {
+            char c = word[i];
+            char next = at(i + 1);
+            if (c == at(i - 1) && c != 'c') {
+                // A doubled letter sounds once
+                i++;
+                continue;
+            }
+            switch (c) {
+                case 'a':
+                case 'e':
+                case 'i':
+                case 'o':
+                case 'u':
+                    if (i == 0) {
+                        add('A');
+                    }
+                    addVowel(i);
+                    break;
+                case 'b':
+                    // The B of a final MB is silent
+                    if (!(i == length - 1 && at(i - 1) == 'm')) {
+                        add('P');
+                    }
+                    break;
+                case 'c':
+                    if (next == 'h') {
+                        add(at(i - 1) == 's' ? 'K' : 'X', 'K');
+                        i++;
+                    } else if (isSoftening(next)) {
+                        // The C of SCE, SCI and SCY is silent
+                        if (at(i - 1) != 's') {
+                            add('S');
+                        }
+                    } else if (next == 'k' || next == 'q') {
+                        add('K');
+                        i++;
+                    } else if (at(i - 1) != 'c') {
+                        add('K');
+                    }
+                    break;
+                case 'd':
+                    if (next == 'g' && isSoftening(at(i + 2))) {
+                        add('J');
+                        i += 2;
+                    } else {
+                        add('T');
+                    }
+                    break;
+                case 'f':
+                case 'v':
+                    add('F');
+                    break;
+                case 'g':
+                    if (next == 'h') {
+                        if (i == 0 || isVowel(at(i + 2))) {
+                            add('K');
+                        } else {
+                            // Silent as in "night", but F as in "tough"
+                            add((char) 0, at(i - 1) == 'u' ? 'F' : 0);
+                        }
+                        i++;
+                    } else if (next == 'n' && (i + 2 == length
+                            || (at(i + 2) == 'e' && at(i + 3) == 'd' && i + 4 == length))) {
+                        // The G of a final GN or GNED is silent
+                        break;
+                    } else if (isSoftening(next)) {
+                        add('J', 'K');
+                    } else {
+                        add('K');
+                    }
+                    break;
+                case 'h':
+                    char before = at(i - 1);
+                    if (isVowel(next) && !isVowel(before) && before != 'c' && before != 's'
+                            && before != 'p' && before != 't' && before != 'g') {
+                        add('H');
+                    }
+                    break;
+                case 'j':
+                    add('J', 'H');
+                    break;
+                case 'k':
+                    if (at(i - 1) != 'c') {
+                        add('K');
+                    }
+                    break;
+                case 'l':
+                    add('L');
+                    break;
+                case 'm':
+                    add('M');
+                    break;
+                case 'n':
+                    add('N');
+                    break;
+                case 'p':
+                    if (next == 'h') {
+                        add('F');
+                        i++;
+                    } else {
+                        add('P');
+                    }
+                    break;
+                case 'q':
+                    add('K');
+                    break;
+                case 'r':
+                    add('R');
+                    break;
+                case 's':
+                    if (next == 'h') {
+                        add('X');
+                        i++;
+                    } else if (next == 'i' && (at(i + 2) == 'o' || at(i + 2) == 'a')) {
+                        add('X', 'S');
+                    } else {
+                        add('S');
+                    }
+                    break;
+                case 't':
+                    if (next == 'i' && (at(i + 2) == 'o' || at(i + 2) == 'a')) {
+                        add('X');
+                    } else if (next == 'h') {
+                        add('0', 'T');
+                        i++;
+                    } else if (!(next == 'c' && at(i + 2) == 'h')) {
+                        // The T of TCH is silent
+                        add('T');
+                    }
+                    break;
+                case 'w':
+                    if (isVowel(next)) {
+                        add('W');
+                    }
+                    break;
+                case 'x':
+                    add('K');
+                    add('S');
+                    break;
+                case 'y':
+                    if (isVowel(next)) {
+                        add('Y');
+                    } else {
+                        if (i == 0) {
+                            add('A');
+                        }
+                        // A Y that is not a consonant sounds as a long E at the
+                        // end of a word and as a long I elsewhere
+                        if (sounds != null) {
+                            sounds.append(i == length - 1 && i > 0 ? 'E' : 'I');
+                        }
+                    }
+                    break;
+                case 'z':
+                    add('S');
+                    break;
+                default:
+                    break;
+            }
+            i++;
+        }
+    }
+}
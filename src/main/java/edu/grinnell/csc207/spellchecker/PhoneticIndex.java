@@ -0,0 +1,178 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * An index of the dictionary by sound, for suggesting corrections to phonetic
+ * misspellings such as "fone" or "nite" that are too far from the intended
+ * word in edit distance. Every word is filed under its primary and alternate
+ * {@link PhoneticCode}, so a lookup is a hash probe for each of the query's
+ * codes followed by ranking the words found by how well they sound alike,
+ * rather than by how close they are in spelling.
+ *
+ * <p>The index is flat: the words, and {@link PostingLists} from each code to
+ * the ids of its words. Word ids are positions in alphabetical order.
+ */
+public class PhoneticIndex {
+    /** The number of suggestions returned when no limit is given. */
+    private static final int DEFAULT_LIMIT = 10;
+
+    /** The number of low bits of a packed ranking key holding the word id. */
+    private static final int ID_BITS = 24;
+
+    /** The number of bits of a packed ranking key holding each distance. */
+    private static final int DISTANCE_BITS = 3;
+
+    /** The number of bits of a packed ranking key holding the frequency. */
+    private static final int WEIGHT_BITS = 31;
+
+    /** The largest distance a packed ranking key can hold. */
+    private static final int MAX_RANK_DISTANCE = (1 << DISTANCE_BITS) - 1;
+
+    /** The words of the dictionary, in alphabetical order. */
+    private final String[] words;
+    /** The frequency of each word. */
+    private final int[] weights;
+    /** The primary code of each word. */
+    private final int[] primaries;
+    /** The alternate code of each word. */
+    private final int[] alternates;
+    /** The ids of the words having each code, keyed by the code in the high int. */
+    private final PostingLists lists;
+
+    /**
+     * @param words the words of the dictionary, in alphabetical order
+     * @param weights the frequency of each word
+     * @param primaries the primary code of each word
+     * @param alternates the alternate code of each word
+     * @param lists the ids of the words having each code
+     */
+    private PhoneticIndex(String[] words, int[] weights, int[] primaries, int[] alternates,
+            PostingLists lists) {
+        this.words = words;
+        this.weights = weights;
+        this.primaries = primaries;
+        this.alternates = alternates;
+        this.lists = lists;
+    }
+
+    /**
+     * Builds the index over the words of a SpellChecker, with their
+     * frequencies. The words are encoded on all cores, and the (code, id) pairs
+     * are packed into longs and sorted so that each code's ids form a run.
+     *
+     * @param checker the dictionary to index
+     * @return a PhoneticIndex over the words of checker
+     * @throws IllegalArgumentException If there are too many words to index
+     */
+    public static PhoneticIndex build(SpellChecker checker) {
+        String[] words = checker.wordsWithPrefix("").toArray(String[]::new);
+        if (words.length >= 1 << ID_BITS) {
+            throw new IllegalArgumentException("Too many words to index: " + words.length);
+        }
+        int[] weights = new int[words.length];
+        int[] primaries = new int[words.length];
+        int[] alternates = new int[words.length];
+        long[] entries = new long[2 * words.length];
+        IntStream.range(0, words.length).parallel().forEach(id -> {
+            weights[id] = checker.getFrequency(words[id]);
+            int[] wordCodes = PhoneticCode.encode(words[id]);
+            primaries[id] = wordCodes[0];
+            alternates[id] = wordCodes[1];
+            entries[2 * id] = (long) wordCodes[0] << Integer.SIZE | id;
+            entries[2 * id + 1] = (long) wordCodes[1] << Integer.SIZE | id;
+        });
+        Arrays.parallelSort(entries);
+        // A word whose two codes are equal appears twice in a row, which the
+        // lists keep once
+        return new PhoneticIndex(words, weights, primaries, alternates,
+                PostingLists.fromSortedEntries(entries, Integer.SIZE));
+    }
+
+    /**
+     * Finds up to {@value #DEFAULT_LIMIT} words that sound like the given word;
+     * see {@link #getPhoneticSuggestions(String, int)}.
+     *
+     * @param word The word to correct
+     * @return The best words sounding like word, best first
+     */
+    public List<String> getPhoneticSuggestions(String word) {
+        return getPhoneticSuggestions(word, DEFAULT_LIMIT);
+    }
+
+    /**
+     * Finds the words that sound like the given word: those sharing its
+     * primary or alternate code. Words whose primary code is the word's come
+     * first, then those sharing a primary with an alternate code, then those
+     * sharing only alternates. Within each, the most frequent come first, then
+     * those whose {@linkplain PhoneticCode#sounds sounds} with vowels are
+     * closest to the word's, and only then those closest in spelling, with any
+     * remaining ties in alphabetical order.
+     *
+     * @param word The word to correct
+     * @param limit The largest number of suggestions to return
+     * @return At most limit words other than word itself sounding like it,
+     *         best first
+     * @throws IllegalArgumentException If limit is negative
+     */
+    public List<String> getPhoneticSuggestions(String word, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative limit: " + limit);
+        }
+        String query = word.toLowerCase();
+        int[] queryCodes = PhoneticCode.encode(query);
+        String querySounds = PhoneticCode.sounds(query);
+        int numCandidates = 0;
+        long[] ranked = new long[0];
+        for (int c = 0; c < queryCodes.length; c++) {
+            int k = lists.find((long) queryCodes[c] << Integer.SIZE);
+            if (k < 0 || (c > 0 && queryCodes[c] == queryCodes[0])) {
+                continue;
+            }
+            ranked = Arrays.copyOf(ranked, numCandidates + lists.starts[k + 1] - lists.starts[k]);
+            for (int i = lists.starts[k]; i < lists.starts[k + 1]; i++) {
+                ranked[numCandidates++] = lists.ids[i];
+            }
+        }
+        // Sort the ids to drop the words found under both codes
+        Arrays.sort(ranked, 0, numCandidates);
+
+        // Rank in place; the key of a candidate only overwrites earlier ids
+        int numRanked = 0;
+        int previous = -1;
+        for (int i = 0; i < numCandidates; i++) {
+            int id = (int) ranked[i];
+            if (id == previous || words[id].equals(query)) {
+                continue;
+            }
+            previous = id;
+            String candidate = words[id];
+            int match = primaries[id] == queryCodes[0] ? 0
+                    : primaries[id] == queryCodes[1] || alternates[id] == queryCodes[0] ? 1 : 2;
+            int soundDistance = EditDistance.levenshtein(querySounds,
+                    PhoneticCode.sounds(candidate), MAX_RANK_DISTANCE - 1);
+            int spellingDistance = EditDistance.levenshtein(query, candidate,
+                    MAX_RANK_DISTANCE - 1);
+            long key = (long) match << WEIGHT_BITS | (Integer.MAX_VALUE - weights[id]);
+            key = (key << DISTANCE_BITS | soundDistance) << DISTANCE_BITS | spellingDistance;
+            ranked[numRanked++] = key << ID_BITS | id;
+        }
+        Arrays.sort(ranked, 0, numRanked);
+
+        List<String> suggestions = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, numRanked); i++) {
+            suggestions.add(words[(int) (ranked[i] & ((1 << ID_BITS) - 1))]);
+        }
+        return suggestions;
+    }
+
+    /**
+     * @return the number of distinct codes in the index
+     */
+    public int numCodes() {
+        return lists.keys.length;
+    }
+}
@@ -0,0 +1,118 @@
+package edu.grinnell.csc207.spellchecker;
+
+/**
+ * A flat map from keys to lists of word ids, shared by the fuzzy indexes: the
+ * distinct keys in increasing order, the ids of each key's words one after the
+ * other in a single array, and an open-addressing table from key to position.
+ *
+ * <p>Indexes build one from a sorted array of entries, each packing a key in
+ * its high bits with a word id in its low bits, so that the entries of a key
+ * form a run. A key is stored with its id bits cleared.
+ */
+final class PostingLists {
+    /** The distinct keys, in increasing order. */
+    final long[] keys;
+    /** The index in ids of the first word id of each key, and the end. */
+    final int[] starts;
+    /** The ids of the words of each key, in increasing order within a key. */
+    final int[] ids;
+    /** An open-addressing table holding the index in keys + 1 of each key. */
+    private final int[] table;
+    /** The shift taking a mixed key to a slot of table. */
+    private final int shift;
+
+    /**
+     * @param keys the distinct keys, in increasing order
+     * @param starts the index in ids of the first id of each key, and the end
+     * @param ids the ids of the words of each key
+     */
+    PostingLists(long[] keys, int[] starts, int[] ids) {
+        this.keys = keys;
+        this.starts = starts;
+        this.ids = ids;
+        this.table = new int[Integer.highestOneBit(Math.max(1, keys.length)) << 2];
+        this.shift = Long.SIZE - Integer.numberOfTrailingZeros(table.length);
+        for (int k = 0; k < keys.length; k++) {
+            int slot = slot(keys[k]);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (table.length - 1);
+            }
+            table[slot] = k + 1;
+        }
+    }
+
+    /**
+     * Turns each run of equal keys of a sorted array of entries into a key and
+     * its distinct word ids, counting them first so that the arrays are
+     * allocated at their size. Equal entries, such as a word reaching a key
+     * twice, give a single id.
+     *
+     * @param entries the entries, each a key with an id in its low idBits bits,
+     *        in increasing order
+     * @param idBits the number of low bits of an entry holding the word id
+     * @return the lists of the entries
+     */
+    static PostingLists fromSortedEntries(long[] entries, int idBits) {
+        long idMask = (1L << idBits) - 1;
+        int numKeys = 0;
+        int numIds = 0;
+        for (int i = 0; i < entries.length; i++) {
+            if (i == 0 || entries[i] != entries[i - 1]) {
+                numIds++;
+                if (i == 0 || (entries[i] & ~idMask) != (entries[i - 1] & ~idMask)) {
+                    numKeys++;
+                }
+            }
+        }
+        long[] keys = new long[numKeys];
+        int[] starts = new int[numKeys + 1];
+        int[] ids = new int[numIds];
+        int k = 0;
+        int p = 0;
+        for (int i = 0; i < entries.length; i++) {
+            if (i > 0 && entries[i] == entries[i - 1]) {
+                continue;
+            }
+            long key = entries[i] & ~idMask;
+            if (k == 0 || keys[k - 1] != key) {
+                keys[k] = key;
+                starts[k++] = p;
+            }
+            ids[p++] = (int) (entries[i] & idMask);
+        }
+        starts[numKeys] = numIds;
+        return new PostingLists(keys, starts, ids);
+    }
+
+    /**
+     * @param key a key
+     * @return the slot in table where the search for key starts
+     */
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    /**
+     * @param key a key, with its id bits cleared
+     * @return the index of key in keys, or -1 if no word has it
+     */
+    int find(long key) {
+        int slot = slot(key);
+        while (table[slot] != 0) {
+            int k = table[slot] - 1;
+            if (keys[k] == key) {
+                return k;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * @return the size in bytes of the arrays
+     */
+    long sizeInBytes() {
+        return (long) keys.length * Long.BYTES
+                + ((long) starts.length + ids.length + table.length) * Integer.BYTES;
+    }
+}
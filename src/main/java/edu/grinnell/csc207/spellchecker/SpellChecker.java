@@ -1,47 +1,490 @@
 package edu.grinnell.csc207.spellchecker;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Collections;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 /**
  * A spellchecker maintains an efficient representation of a dictionary for
  * the purposes of checking spelling and provided suggested corrections.
  */
-public class SpellChecker {
+public class SpellChecker implements Dictionary, FuzzyIndex {
     /** The number of letters in the alphabet. */
     private static final int NUM_LETTERS = 26;
 
     /** The path to the dictionary file. */
     private static final String DICT_PATH = "words_alpha.txt";
 
+    /** The size in bytes of the chunks a dictionary stream is read in. */
+    private static final int READ_BUFFER_BYTES = 1 << 16;
+
+    /**
+     * The number of leading characters batches of words are sorted by: five
+     * bits each, which with a 24-bit index keeps the packed keys positive.
+     */
+    private static final int SORT_KEY_CHARS = 7;
+
+    /** The largest number of words sorted together in a batch. */
+    private static final int MAX_BATCH = 1 << 24;
+
+    /** The largest edit distance searched for ranked suggestions by default. */
+    private static final int MAX_SUGGESTION_DISTANCE = 2;
+
+    /** The default budget of keyboard corrections: up to two slips to a neighbouring key. */
+    private static final int KEYBOARD_BUDGET = 2 * KeyboardLayout.ADJACENT_COST;
+
+    /** The default number of bits per word of the negative filter. */
+    private static final int FILTER_BITS_PER_WORD = 10;
+
+    /** The first int of every snapshot file, "SPCK" in ASCII. */
+    private static final int SNAPSHOT_MAGIC = 0x5350434b;
+
+    /**
+     * The version of the snapshot format. Version 1 snapshots, which have no
+     * frequencies, can still be loaded.
+     */
+    private static final int SNAPSHOT_VERSION = 2;
+
+    /** The size in bytes of a snapshot header: magic, version and node count. */
+    private static final int SNAPSHOT_HEADER_BYTES = 3 * Integer.BYTES;
+
     /**
      * @param filename the path to the dictionary file
      * @return a SpellChecker over the words found in the given file.
      */
     public static SpellChecker fromFile(String filename) throws IOException {
-        return new SpellChecker(Files.readAllLines(Paths.get(filename)));
+        try (InputStream in = Files.newInputStream(Paths.get(filename))) {
+            return fromStream(in);
+        }
+    }
+
+    /**
+     * Builds a SpellChecker from a dictionary with one word per line, streaming
+     * it in large chunks. Each byte is folded to lower case and inserted straight
+     * into the trie as it is read, so neither the lines nor the words are ever
+     * materialized, and peak memory is the trie plus one read buffer. Lines may
+     * end with LF, CRLF or CR, as with {@link Files#readAllLines}. A word may be
+     * followed by spaces or tabs and its frequency, as a decimal count that is
+     * used to rank suggestions; see {@link #loadFrequencies}.
+     *
+     * @param in the stream to read the dictionary from; it is not closed
+     * @return a SpellChecker over the words found in the stream
+     * @throws IOException If the stream cannot be read, has a non-letter in a
+     *         word or a non-digit in a frequency, or has a line with a frequency
+     *         but no word or with more than one frequency
+     */
+    public static SpellChecker fromStream(InputStream in) throws IOException {
+        SpellChecker checker = new SpellChecker(new Node());
+        byte[] buffer = new byte[READ_BUFFER_BYTES];
+        Node current = checker.root;
+        boolean inLine = false;
+        boolean afterCr = false;
+        // The frequency read so far on this line, or -1 before the column
+        long frequency = -1;
+        boolean inDigits = false;
+        boolean afterDigits = false;
+        int line = 1;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                int b = buffer[i];
+                if (b == '\n' && afterCr) {
+                    // The second half of a CRLF line ending
+                    afterCr = false;
+                } else if (b == '\n' || b == '\r') {
+                    current.setWord();
+                    if (frequency >= 0) {
+                        current.weight = (int) frequency;
+                    }
+                    current = checker.root;
+                    frequency = -1;
+                    inDigits = false;
+                    afterDigits = false;
+                    inLine = false;
+                    afterCr = b == '\r';
+                    line++;
+                } else if (b == ' ' || b == '\t') {
+                    if (!inLine) {
+                        throw new IOException("No word before the frequency on line " + line);
+                    }
+                    frequency = Math.max(frequency, 0);
+                    afterDigits = inDigits;
+                    afterCr = false;
+                } else if (frequency >= 0) {
+                    if (b < '0' || b > '9') {
+                        throw new IOException("Not a digit on line " + line + ": " + (char) b);
+                    }
+                    if (afterDigits) {
+                        throw new IOException("More than one frequency on line " + line);
+                    }
+                    frequency = Math.min(Integer.MAX_VALUE, frequency * 10 + (b - '0'));
+                    inDigits = true;
+                    afterCr = false;
+                } else {
+                    int index = letterIndex(b);
+                    if (index < 0) {
+                        throw new IOException("Not a letter on line " + line + ": " + (char) b);
+                    }
+                    current = current.getOrAddChild(index);
+                    inLine = true;
+                    afterCr = false;
+                }
+            }
+        }
+        if (inLine || frequency >= 0) {
+            current.setWord();
+            if (frequency >= 0) {
+                current.weight = (int) frequency;
+            }
+        }
+        updateHeights(checker.root);
+        checker.root = updateMaxWeights(checker.root);
+        return checker;
+    }
+
+    /**
+     * Loads a SpellChecker from a snapshot written by {@link #save}. The trie is
+     * rebuilt node by node in one sequential pass over the file, without
+     * creating a String for any word.
+     *
+     * @param path the path to the snapshot file
+     * @return a SpellChecker over the words in the snapshot
+     * @throws IOException If the file cannot be read or is not a valid snapshot
+     */
+    public static SpellChecker fromSnapshot(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (bytes.length < SNAPSHOT_HEADER_BYTES + Long.BYTES
+                || in.getInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a snapshot file: " + path);
+        }
+        int version = in.getInt();
+        if (version != 1 && version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        boolean weighted = version >= 2;
+        int numNodes = in.getInt();
+        int end = bytes.length - Long.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, end);
+        long nodeBytes = end - SNAPSHOT_HEADER_BYTES;
+        if (numNodes <= 0 || nodeBytes < (long) numNodes * Integer.BYTES
+                || nodeBytes > (long) numNodes * Integer.BYTES * (weighted ? 2 : 1)
+                || crc.getValue() != in.getLong(end)) {
+            throw new IOException("Corrupt snapshot file: " + path);
+        }
+        in.limit(end);
+        try {
+            Node root = readNodes(in, numNodes, weighted, path);
+            updateHeights(root);
+            return new SpellChecker(updateMaxWeights(root));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt snapshot file: " + path);
+        }
+    }
+
+    /**
+     * Rebuilds a trie from the nodes of a snapshot.
+     *
+     * @param in the snapshot, positioned at the first node and limited to the
+     *        last one
+     * @param numNodes the number of nodes
+     * @param weighted whether each word node is followed by its frequency
+     * @param path the path to the snapshot file, for error messages
+     * @return the root of the trie
+     * @throws IOException If the nodes do not form a trie
+     */
+    private static Node readNodes(ByteBuffer in, int numNodes, boolean weighted, Path path)
+            throws IOException {
+        // The nodes are in pre-order, so each node read is the next child of
+        // the deepest node on the stack that is still missing children.
+        Node root = readNode(in, weighted);
+        Node[] stack = new Node[16];
+        int[] filled = new int[16];
+        stack[0] = root;
+        int depth = 0;
+        for (int i = 1; i < numNodes; i++) {
+            while (depth >= 0 && filled[depth] == stack[depth].numChildren()) {
+                depth--;
+            }
+            if (depth < 0) {
+                throw new IOException("Corrupt snapshot file: " + path);
+            }
+            Node node = readNode(in, weighted);
+            stack[depth].setChildAt(filled[depth]++, node);
+            if (++depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+                filled = Arrays.copyOf(filled, depth * 2);
+            }
+            stack[depth] = node;
+            filled[depth] = 0;
+        }
+        for (; depth >= 0; depth--) {
+            if (filled[depth] != stack[depth].numChildren()) {
+                throw new IOException("Corrupt snapshot file: " + path);
+            }
+        }
+        if (in.hasRemaining()) {
+            throw new IOException("Corrupt snapshot file: " + path);
+        }
+        return root;
+    }
+
+    /**
+     * @param in the snapshot, positioned at a node
+     * @param weighted whether a word node is followed by its frequency
+     * @return the node, with room for its children
+     */
+    private static Node readNode(ByteBuffer in, boolean weighted) {
+        Node node = Node.withMask(in.getInt());
+        if (weighted && node.isWord()) {
+            node.weight = in.getInt();
+        }
+        return node;
+    }
+
+    /**
+     * A Node of the SpellChecker structure. Most nodes have no children or a
+     * single child, so rather than a slot for every letter a node keeps a bit
+     * mask of the letters it has children for, and only stores those children:
+     * a lone child is referenced directly, and two or more are kept in a dense
+     * array in letter order, where the child for a letter sits at the number of
+     * mask bits below that letter's bit.
+     *
+     * <p>The bits of the mask above the word bit hold the height of the node,
+     * the most letters a word below it has past it, which lets the fuzzy
+     * searches give up on subtrees whose words are all too short.
+     *
+     * <p>The frequency of a word fits in the padding of a node, but the largest
+     * frequency below a node does not, so it is only kept by a
+     * {@link WeightedNode}, which stands in for a node with frequencies below it.
+     */
+    private static class Node {
+        /** The bit of mask marking the node as the end of a valid word */
+        private static final int WORD_BIT = 1 << NUM_LETTERS;
+
+        /** The mask of the letter bits of mask */
+        private static final int LETTER_MASK = WORD_BIT - 1;
+
+        /** The position in mask of the height, in the bits above WORD_BIT */
+        private static final int HEIGHT_SHIFT = NUM_LETTERS + 1;
+
+        /** The largest height mask can hold, which stands for any taller one */
+        private static final int MAX_HEIGHT = -1 >>> HEIGHT_SHIFT;
+
+        /**
+         * Bit i is set if there is a child for the i-th letter; see WORD_BIT.
+         * The top bits hold the height of the node; see height().
+         */
+        private int mask;
+        /** Null, the only child, or an array of the children in letter order */
+        private Object children;
+        /** The frequency of the word ending at this node, or 0 if unknown */
+        private int weight;
+
+        /**
+         * @param mask the letter bits and word bit of the node
+         * @return a node with room for the children in mask, which are set with
+         *         setChildAt
+         */
+        static Node withMask(int mask) {
+            Node node = new Node();
+            node.mask = mask;
+            int count = node.numChildren();
+            if (count > 1) {
+                node.children = new Node[count];
+            }
+            return node;
+        }
+
+        /**
+         * @param rank the position of a child in letter order
+         * @param child the child with rank children before it
+         */
+        void setChildAt(int rank, Node child) {
+            if (children instanceof Node[]) {
+                ((Node[]) children)[rank] = child;
+            } else {
+                children = child;
+            }
+        }
+
+        /**
+         * @return the largest frequency of a word in the subtree, this node's
+         *         included, as of the last {@link SpellChecker#updateMaxWeights}
+         */
+        int maxWeight() {
+            return 0;
+        }
+
+        /**
+         * @return the most characters a word below this node has past it, or
+         *         MAX_HEIGHT if it may be more
+         */
+        int height() {
+            return mask >>> HEIGHT_SHIFT;
+        }
+
+        /**
+         * @param height the most characters a word below this node has past it
+         */
+        void setHeight(int height) {
+            mask = (mask & (WORD_BIT | LETTER_MASK))
+                    | (Math.min(height, MAX_HEIGHT) << HEIGHT_SHIFT);
+        }
+
+        /**
+         * @param height the number of characters a word below this node has
+         *        past it
+         */
+        void raiseHeight(int height) {
+            if (height > height()) {
+                setHeight(height);
+            }
+        }
+
+        /**
+         * @return whether this node represents the end of a valid word
+         */
+        boolean isWord() {
+            return (mask & WORD_BIT) != 0;
+        }
+
+        /** Marks this node as the end of a valid word. */
+        void setWord() {
+            mask |= WORD_BIT;
+        }
+
+        /**
+         * @return the number of children of this node
+         */
+        int numChildren() {
+            return Integer.bitCount(mask & LETTER_MASK);
+        }
+
+        /**
+         * @param rank the position of a child in letter order
+         * @return the child with rank children before it
+         */
+        Node childAt(int rank) {
+            if (children instanceof Node) {
+                return (Node) children;
+            }
+            return ((Node[]) children)[rank];
+        }
+
+        /**
+         * @param index the letter of the child, from 0 for 'a'
+         * @return the child for the given letter, or null if there is none
+         */
+        Node child(int index) {
+            if (index < 0 || index >= NUM_LETTERS) {
+                return null;
+            }
+            int bit = 1 << index;
+            if ((mask & bit) == 0) {
+                return null;
+            }
+            return childAt(Integer.bitCount(mask & (bit - 1)));
+        }
+
+        /**
+         * @param index the letter of the child, from 0 for 'a'
+         * @return the child for the given letter, created if there was none
+         */
+        Node getOrAddChild(int index) {
+            Node existing = child(index);
+            if (existing != null) {
+                return existing;
+            }
+            Node added = new Node();
+            putChild(index, added);
+            return added;
+        }
+
+        /**
+         * @param index the letter of the child, from 0 for 'a', which must not
+         *        have a child yet
+         * @param added the new child for the given letter
+         */
+        void putChild(int index, Node added) {
+            if (index < 0 || index >= NUM_LETTERS) {
+                throw new IllegalArgumentException("Not a letter: " + (char) ('a' + index));
+            }
+            int bit = 1 << index;
+            int rank = Integer.bitCount(mask & (bit - 1));
+            int count = numChildren();
+            if (count == 0) {
+                children = added;
+            } else {
+                Node[] grown = new Node[count + 1];
+                for (int i = 0; i < count; i++) {
+                    grown[i < rank ? i : i + 1] = childAt(i);
+                }
+                grown[rank] = added;
+                children = grown;
+            }
+            mask |= bit;
+        }
     }
 
-    /** A Node of the SpellChecker structure. */
-    private class Node {
-        /** Children nodes for each letter of the alphabet */
-        private Node[] children;
-        /** Whether this node represents the end of a valid word */
-        private boolean isWord;
+    /** A Node with frequencies in its subtree, which keeps the largest of them. */
+    private static final class WeightedNode extends Node {
+        /** The largest frequency of a word in the subtree, this node's included */
+        private int maxWeight;
+
+        /**
+         * @param node the node to stand in for, whose children are shared
+         * @param maxWeight the largest frequency of a word in the subtree
+         */
+        WeightedNode(Node node, int maxWeight) {
+            super.mask = node.mask;
+            super.children = node.children;
+            super.weight = node.weight;
+            this.maxWeight = maxWeight;
+        }
 
-        /** Constructor for a new Node */
-        public Node() {
-            this.children = new Node[NUM_LETTERS];
-            this.isWord = false;
+        @Override
+        int maxWeight() {
+            return maxWeight;
         }
     }
 
     /** The root of the SpellChecker */
     private Node root;
 
+    /** A filter rejecting most non-words before the trie walk, or null if off */
+    private BloomFilter filter;
+
     /**
      * Creates a new SpellChecker with a given list of dictionary words.
      * Each word in the dictionary will be added to the trie data structure.
@@ -56,46 +499,561 @@ public class SpellChecker {
     }
 
     /**
-     * Adds a word to the spell checker's dictionary.
-     * The word is converted to lowercase before being added.
-     *
-     * @param word The word to add to the dictionary
+     * Creates a new SpellChecker with a given list of dictionary words, building
+     * the trie on all cores. The words are partitioned by their first two
+     * letters, each partition's subtree is built in its own fork-join task, and
+     * the subtrees are then attached below the root in letter order. The result
+     * is identical to that of {@link #SpellChecker(List)}.
+     *
+     * @param dict A list of words to be used as the dictionary
+     * @return a SpellChecker over the given words
+     */
+    public static SpellChecker buildParallel(List<String> dict) {
+        List<List<String>> partitions = new ArrayList<>(NUM_LETTERS * NUM_LETTERS);
+        for (int i = 0; i < NUM_LETTERS * NUM_LETTERS; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        // Words too short to partition are added once the subtrees are in place
+        List<String> shortWords = new ArrayList<>();
+        for (String word : dict) {
+            word = word.toLowerCase();
+            int first = word.length() < 2 ? -1 : word.charAt(0) - 'a';
+            int second = word.length() < 2 ? -1 : word.charAt(1) - 'a';
+            if (first < 0 || first >= NUM_LETTERS || second < 0 || second >= NUM_LETTERS) {
+                shortWords.add(word);
+            } else {
+                partitions.get(first * NUM_LETTERS + second).add(word);
+            }
+        }
+
+        List<SubtreeTask> tasks = new ArrayList<>();
+        for (List<String> partition : partitions) {
+            tasks.add(new SubtreeTask(partition));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        Node root = new Node();
+        for (int first = 0; first < NUM_LETTERS; first++) {
+            Node node = null;
+            for (int second = 0; second < NUM_LETTERS; second++) {
+                Node subtree = tasks.get(first * NUM_LETTERS + second).join();
+                if (subtree != null) {
+                    if (node == null) {
+                        node = root.getOrAddChild(first);
+                    }
+                    node.putChild(second, subtree);
+                    node.raiseHeight(subtree.height() + 1);
+                    root.raiseHeight(subtree.height() + 2);
+                }
+            }
+        }
+        SpellChecker checker = new SpellChecker(root);
+        for (String word : shortWords) {
+            checker.add(word);
+        }
+        return checker;
+    }
+
+    /** Builds the subtree below a two-letter prefix from the words sharing it. */
+    @SuppressWarnings("serial")
+    private static class SubtreeTask extends RecursiveTask<Node> {
+        /** The lower-cased words starting with the prefix. */
+        private final List<String> words;
+
+        /**
+         * @param words the lower-cased words starting with the prefix
+         */
+        SubtreeTask(List<String> words) {
+            this.words = words;
+        }
+
+        @Override
+        protected Node compute() {
+            if (words.isEmpty()) {
+                return null;
+            }
+            Node subtree = new Node();
+            for (String word : words) {
+                insert(subtree, word, 2);
+            }
+            return subtree;
+        }
+    }
+
+    /**
+     * @param root the root of an already built trie
+     */
+    private SpellChecker(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Writes a snapshot of the dictionary that can be loaded with
+     * {@link #fromSnapshot}. The snapshot is a header (magic, version and node
+     * count), the mask of every node in pre-order, each word's followed by its
+     * frequency, and a CRC-32 of all of the preceding bytes.
+     *
+     * @param path the file to write
+     * @throws IOException If the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(path))) {
+            CheckedOutputStream checked = new CheckedOutputStream(file, new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(countNodes(root));
+            writeNodes(root, out);
+            out.flush();
+            new DataOutputStream(file).writeLong(checked.getChecksum().getValue());
+        }
+    }
+
+    /**
+     * @param node the root of a subtree
+     * @return the number of nodes in the subtree
+     */
+    private static int countNodes(Node node) {
+        int count = 1;
+        for (int rank = 0; rank < node.numChildren(); rank++) {
+            count += countNodes(node.childAt(rank));
+        }
+        return count;
+    }
+
+    /**
+     * Writes the mask of every node of a subtree in pre-order, and the
+     * frequency of each word after its mask.
+     *
+     * @param node the root of the subtree
+     * @param out the stream to write to
+     * @throws IOException If the stream cannot be written
+     */
+    private static void writeNodes(Node node, DataOutputStream out) throws IOException {
+        // The height is not part of the format; it is recomputed on loading
+        out.writeInt(node.mask & (Node.WORD_BIT | Node.LETTER_MASK));
+        if (node.isWord()) {
+            out.writeInt(node.weight);
+        }
+        for (int rank = 0; rank < node.numChildren(); rank++) {
+            writeNodes(node.childAt(rank), out);
+        }
+    }
+
+    /**
+     * Adds a word to the spell checker's dictionary.
+     * The word is converted to lowercase before being added.
+     *
+     * @param word The word to add to the dictionary
+     */
+    public void add(String word) {
+        insert(root, word, 0);
+        if (filter != null) {
+            long hash = WordHash.SEED;
+            for (int i = 0; i < word.length(); i++) {
+                hash = hashStep(hash, letterIndex(word.charAt(i)));
+            }
+            filter.add(WordHash.finish(hash));
+        }
+    }
+
+    /**
+     * Sets the frequencies used to rank suggestions from a side file with a
+     * word and its count on each line, separated by whitespace. Words that are
+     * not in the dictionary are skipped, and dictionary words that are not
+     * listed keep their frequency.
+     *
+     * @param path the path to the frequency file
+     * @return the number of dictionary words whose frequency was set
+     * @throws IOException If the file cannot be read or a line is malformed
+     */
+    public int loadFrequencies(Path path) throws IOException {
+        int updated = 0;
+        int line = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                String[] fields = text.trim().split("\\s+");
+                if (fields.length == 1 && fields[0].isEmpty()) {
+                    continue;
+                }
+                long count = -1;
+                if (fields.length == 2 && fields[1].matches("[0-9]+")) {
+                    count = fields[1].length() > 10 ? Integer.MAX_VALUE
+                            : Math.min(Integer.MAX_VALUE, Long.parseLong(fields[1]));
+                }
+                if (count < 0) {
+                    throw new IOException("Expected a word and a count on line " + line
+                            + ": " + text);
+                }
+                Node node = find(fields[0]);
+                if (node != null && node.isWord()) {
+                    node.weight = (int) count;
+                    updated++;
+                }
+            }
+        }
+        root = updateMaxWeights(root);
+        return updated;
+    }
+
+    /**
+     * Recomputes the largest frequency below every node of a subtree, after
+     * frequencies have been set. A node with frequencies below it is replaced
+     * by a {@link WeightedNode} the first time, so a trie without frequencies
+     * costs nothing extra.
+     *
+     * @param node the root of the subtree
+     * @return the node to keep in place of node, with its largest frequency
+     */
+    private static Node updateMaxWeights(Node node) {
+        int max = node.isWord() ? node.weight : 0;
+        for (int rank = 0; rank < node.numChildren(); rank++) {
+            Node child = updateMaxWeights(node.childAt(rank));
+            node.setChildAt(rank, child);
+            max = Math.max(max, child.maxWeight());
+        }
+        if (node instanceof WeightedNode) {
+            ((WeightedNode) node).maxWeight = max;
+            return node;
+        }
+        return max > 0 ? new WeightedNode(node, max) : node;
+    }
+
+    /**
+     * @param word a word
+     * @return the frequency of word used to rank suggestions, or 0 if it is not
+     *         in the dictionary or its frequency is unknown
+     */
+    public int getFrequency(String word) {
+        Node node = find(word);
+        return node != null && node.isWord() ? node.weight : 0;
+    }
+
+    /**
+     * @param prefix a prefix, matched case-insensitively
+     * @return the node reached by following prefix from the root, or null if no
+     *         word starts with it
+     */
+    private Node find(CharSequence prefix) {
+        Node current = root;
+        for (int i = 0; i < prefix.length() && current != null; i++) {
+            current = current.child(letterIndex(prefix.charAt(i)));
+        }
+        return current;
+    }
+
+    /**
+     * Builds a Bloom filter over the words of the dictionary, using
+     * {@value #FILTER_BITS_PER_WORD} bits per word; see
+     * {@link #enableNegativeFilter(int)}.
+     */
+    public void enableNegativeFilter() {
+        enableNegativeFilter(FILTER_BITS_PER_WORD);
+    }
+
+    /**
+     * Builds a blocked Bloom filter over the words of the dictionary, which
+     * isWord then consults before walking the trie. A word the filter rejects
+     * is answered after one pass over its characters and one cache line of
+     * filter, without touching the trie; every other word is still confirmed by
+     * the trie, so answers stay exact. Words added later are added to the filter
+     * too. At 10 bits per word, about 1% of non-words get through to the trie.
+     *
+     * @param bitsPerWord the number of bits of filter to use per word
+     */
+    public void enableNegativeFilter(int bitsPerWord) {
+        BloomFilter built = new BloomFilter(countWords(root), bitsPerWord);
+        addToFilter(built, root, WordHash.SEED);
+        this.filter = built;
+    }
+
+    /**
+     * @param node the root of a subtree
+     * @return the number of words in the subtree
+     */
+    private static long countWords(Node node) {
+        long count = node.isWord() ? 1 : 0;
+        for (int rank = 0; rank < node.numChildren(); rank++) {
+            count += countWords(node.childAt(rank));
+        }
+        return count;
+    }
+
+    /**
+     * Adds every word of a subtree to a filter.
+     *
+     * @param built the filter to add to
+     * @param node the root of the subtree
+     * @param hash the unfinished hash of the path to node
+     */
+    private static void addToFilter(BloomFilter built, Node node, long hash) {
+        if (node.isWord()) {
+            built.add(WordHash.finish(hash));
+        }
+        int rank = 0;
+        for (int bits = node.mask & Node.LETTER_MASK; bits != 0; bits &= bits - 1) {
+            int index = Integer.numberOfTrailingZeros(bits);
+            addToFilter(built, node.childAt(rank++), hashStep(hash, index));
+        }
+    }
+
+    /**
+     * @param hash the unfinished hash of a word
+     * @param index the index in the alphabet of the next letter, or -1
+     * @return the unfinished hash of the word followed by the letter
+     */
+    private static long hashStep(long hash, int index) {
+        return WordHash.step(hash, index + 1);
+    }
+
+    /**
+     * Adds the characters of word from start on below the given node.
+     *
+     * @param node the node standing for the first start characters of word
+     * @param word the lower-cased word to add
+     * @param start the index of the first character to add
+     */
+    private static void insert(Node node, String word, int start) {
+        Node current = node;
+        for (int i = start; i < word.length(); i++) {
+            char c = word.charAt(i);
+            current.raiseHeight(word.length() - i);
+            current = current.getOrAddChild(c - 'a');
+        }
+        current.setWord();
+    }
+
+    /**
+     * Sets the height of every node of a subtree built without keeping it, as
+     * by streaming or loading a snapshot.
+     *
+     * @param node the root of the subtree
+     * @return the height of node
+     */
+    private static int updateHeights(Node node) {
+        int height = 0;
+        for (int rank = 0; rank < node.numChildren(); rank++) {
+            height = Math.max(height, updateHeights(node.childAt(rank)) + 1);
+        }
+        node.setHeight(height);
+        return height;
+    }
+
+    /**
+     * Checks if a given word exists in the dictionary.
+     * The check is case-insensitive.
+     *
+     * @param word The word to check
+     * @return true if the word is in the dictionary, false otherwise
+     */
+    public boolean isWord(String word) {
+        return isWord((CharSequence) word);
+    }
+
+    /**
+     * Checks if a given word exists in the dictionary without allocating.
+     * Case is folded character by character while walking the trie, and only
+     * the ASCII letters can match.
+     *
+     * @param word The word to check
+     * @return true if the word is in the dictionary, false otherwise
+     */
+    public boolean isWord(CharSequence word) {
+        if (filter != null) {
+            long hash = WordHash.SEED;
+            for (int i = 0; i < word.length(); i++) {
+                hash = hashStep(hash, letterIndex(word.charAt(i)));
+            }
+            if (!filter.mightContain(WordHash.finish(hash))) {
+                return false;
+            }
+        }
+        Node current = root;
+        for (int i = 0; i < word.length() && current != null; i++) {
+            current = current.child(letterIndex(word.charAt(i)));
+        }
+        // Word exists only if we reached a node marked as a word
+        return current != null && current.isWord();
+    }
+
+    /**
+     * Checks if the word held in a range of a character array exists in the
+     * dictionary, without allocating.
+     *
+     * @param buf the array holding the word
+     * @param off the index of the first character of the word
+     * @param len the length of the word
+     * @return true if the word is in the dictionary, false otherwise
+     */
+    public boolean isWord(char[] buf, int off, int len) {
+        if (filter != null) {
+            long hash = WordHash.SEED;
+            for (int i = off; i < off + len; i++) {
+                hash = hashStep(hash, letterIndex(buf[i]));
+            }
+            if (!filter.mightContain(WordHash.finish(hash))) {
+                return false;
+            }
+        }
+        Node current = root;
+        for (int i = off; i < off + len && current != null; i++) {
+            current = current.child(letterIndex(buf[i]));
+        }
+        return current != null && current.isWord();
+    }
+
+    /**
+     * Checks if the ASCII word held in a range of a byte buffer exists in the
+     * dictionary, without allocating or moving the buffer's position.
+     *
+     * @param buf the buffer holding the word
+     * @param off the index of the first byte of the word
+     * @param len the length of the word in bytes
+     * @return true if the word is in the dictionary, false otherwise
+     */
+    public boolean isWord(ByteBuffer buf, int off, int len) {
+        if (filter != null) {
+            long hash = WordHash.SEED;
+            for (int i = off; i < off + len; i++) {
+                hash = hashStep(hash, letterIndex(buf.get(i)));
+            }
+            if (!filter.mightContain(WordHash.finish(hash))) {
+                return false;
+            }
+        }
+        Node current = root;
+        for (int i = off; i < off + len && current != null; i++) {
+            current = current.child(letterIndex(buf.get(i)));
+        }
+        return current != null && current.isWord();
+    }
+
+    /**
+     * Checks a whole batch of words against the dictionary. The batch is
+     * sorted internally by its leading characters (ignoring ASCII case) so that
+     * each word can resume the trie walk from where it shares a prefix with the
+     * word before it, rather than starting again from the root; repeated words
+     * cost no walk at all.
+     *
+     * @param words The words to check
+     * @return an array holding, at the index of each word, whether it is in the
+     *         dictionary
+     */
+    public boolean[] isWords(List<? extends CharSequence> words) {
+        boolean[] result = new boolean[words.size()];
+        BitSet found = isWordsAsBitSet(words);
+        for (int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1)) {
+            result[i] = true;
+        }
+        return result;
+    }
+
+    /**
+     * Checks a whole batch of words against the dictionary, as with
+     * {@link #isWords}.
+     *
+     * @param words The words to check
+     * @return the set of the indices of the words that are in the dictionary
+     */
+    public BitSet isWordsAsBitSet(List<? extends CharSequence> words) {
+        BitSet found = new BitSet(words.size());
+        for (int start = 0; start < words.size(); start += MAX_BATCH) {
+            checkBatch(words, start, Math.min(words.size(), start + MAX_BATCH), found);
+        }
+        return found;
+    }
+
+    /**
+     * Checks a range of a batch of words, visiting them in order of their first
+     * SORT_KEY_CHARS characters. That groups the words sharing a prefix of that
+     * length, and is cheap to sort as the key and the index of each word are
+     * packed into a single long.
+     *
+     * @param words The words to check
+     * @param start the index of the first word of the range
+     * @param end the index after the last word of the range
+     * @param found the set to add the indices of the dictionary words to
+     */
+    private void checkBatch(List<? extends CharSequence> words, int start, int end,
+            BitSet found) {
+        long[] order = new long[end - start];
+        for (int i = start; i < end; i++) {
+            CharSequence word = words.get(i);
+            long key = 0;
+            for (int j = 0; j < SORT_KEY_CHARS; j++) {
+                // 0 sorts the end of a word first and 27 sorts non-letters last
+                int code = j >= word.length() ? 0 : letterIndex(word.charAt(j)) + 1;
+                key = (key << 5) | (code == 0 && j < word.length() ? NUM_LETTERS + 1 : code);
+            }
+            order[i - start] = (key << 24) | (i - start);
+        }
+        Arrays.sort(order);
+
+        // path[d] is the node reached by the first d characters of the previous
+        // word, for d up to reached
+        Node[] path = new Node[16];
+        path[0] = root;
+        int reached = 0;
+        CharSequence previous = "";
+        for (long entry : order) {
+            int index = start + (int) (entry & ((1 << 24) - 1));
+            CharSequence word = words.get(index);
+            int depth = Math.min(commonFoldedPrefix(previous, word), reached);
+            if (word.length() >= path.length) {
+                path = Arrays.copyOf(path, word.length() + 1);
+            }
+            Node current = path[depth];
+            while (depth < word.length()) {
+                current = current.child(letterIndex(word.charAt(depth)));
+                if (current == null) {
+                    break;
+                }
+                path[++depth] = current;
+            }
+            reached = depth;
+            if (current != null && current.isWord()) {
+                found.set(index);
+            }
+            previous = word;
+        }
+    }
+
+    /**
+     * @param c a character
+     * @return c with ASCII upper case folded to lower case
+     */
+    private static int foldCase(int c) {
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+    /**
+     * @param a a word
+     * @param b another word
+     * @return the number of leading characters a and b share, ignoring ASCII case
      */
-    public void add(String word) {
-        Node current = root;
-        for (int i = 0; i < word.length(); i++) {
-            char c = word.charAt(i);
-            int index = c - 'a';
-            if (current.children[index] == null) {
-                current.children[index] = new Node();
-            }
-            current = current.children[index];
+    private static int commonFoldedPrefix(CharSequence a, CharSequence b) {
+        int n = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < n && foldCase(a.charAt(i)) == foldCase(b.charAt(i))) {
+            i++;
         }
-        current.isWord = true;
+        return i;
     }
 
     /**
-     * Checks if a given word exists in the dictionary.
-     * The check is case-insensitive.
-     *
-     * @param word The word to check
-     * @return true if the word is in the dictionary, false otherwise
+     * @param c a character
+     * @return the index of c in the alphabet ignoring ASCII case, or -1 if c is
+     *         not an ASCII letter
      */
-    public boolean isWord(String word) {
-        Node current = root;
-        // Convert to lowercase and follow the path for each character
-        word = word.toLowerCase();
-        for (int i = 0; i < word.length(); i++) {
-            char c = word.charAt(i);
-            int index = c - 'a';
-            // If there's no path for this character, word is not in trie
-            if (current.children[index] == null) {
-                return false;
-            }
-            current = current.children[index];
+    private static int letterIndex(int c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        } else if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
         }
-        // Word exists only if we reached a node marked as a word
-        return current.isWord;
+        return -1;
     }
 
     /**
@@ -115,18 +1073,19 @@ public class SpellChecker {
         for (int i = 0; i < word.length(); i++) {
             char c = word.charAt(i);
             int index = c - 'a';
+            current = current.child(index);
             // If we can't follow the path, there are no completions
-            if (current.children[index] == null) {
+            if (current == null) {
                 return completions;
             }
-            current = current.children[index];
         }
 
-        // Try adding each possible character
-        for (int i = 0; i < NUM_LETTERS; i++) {
-            if (current.children[i] != null && current.children[i].isWord) {
+        // Try adding each character that has a child
+        int rank = 0;
+        for (int bits = current.mask & Node.LETTER_MASK; bits != 0; bits &= bits - 1) {
+            if (current.childAt(rank++).isWord()) {
                 // Convert index back to character and add to completions
-                char nextChar = (char) ('a' + i);
+                char nextChar = (char) ('a' + Integer.numberOfTrailingZeros(bits));
                 completions.add(word + nextChar);
             }
         }
@@ -154,17 +1113,18 @@ public class SpellChecker {
         for (int i = 0; i < word.length() - 1; i++) {
             char c = word.charAt(i);
             int index = c - 'a';
-            if (current.children[index] == null) {
+            current = current.child(index);
+            if (current == null) {
                 return corrections;
             }
-            current = current.children[index];
         }
 
-        // Try replacing the last character with every possible letter
+        // Try replacing the last character with every letter that has a child
         String prefix = word.substring(0, word.length() - 1);
-        for (int i = 0; i < NUM_LETTERS; i++) {
-            if (current.children[i] != null && current.children[i].isWord) {
-                char replacement = (char) ('a' + i);
+        int rank = 0;
+        for (int bits = current.mask & Node.LETTER_MASK; bits != 0; bits &= bits - 1) {
+            if (current.childAt(rank++).isWord()) {
+                char replacement = (char) ('a' + Integer.numberOfTrailingZeros(bits));
                 corrections.add(prefix + replacement);
             }
         }
@@ -185,61 +1145,895 @@ public class SpellChecker {
             return corrections;
         }
 
-        word = word.toLowerCase();
+        char[] letters = word.toLowerCase().toCharArray();
+        findSubstitutions(root, letters, 0, false, corrections);
+        return corrections;
+    }
 
-        // Try replacing each character position
-        for (int pos = 0; pos < word.length(); pos++) {
-            Node current = root;
-
-            // Follow path up to the position we want to change
-            boolean pathValid = true;
-            for (int i = 0; i < pos; i++) {
-                char c = word.charAt(i);
-                int index = c - 'a';
-                if (current.children[index] == null) {
-                    pathValid = false;
-                    break;
+    /**
+     * Finds the words reachable from a node by following the rest of a word
+     * with exactly one character substituted, in a single depth-first walk.
+     * Until the substitution is made, the walk tries every other child at the
+     * current position before following the word's own letter, so the prefix
+     * is walked once and results come out by position, then by letter. After
+     * it, the walk only follows the word's letters, and stops as soon as the
+     * suffix leaves the trie.
+     *
+     * @param node the node reached by the first pos characters
+     * @param letters the word, with the substitution made in place if any
+     * @param pos the index of the next character to follow
+     * @param substituted whether a character has been substituted already
+     * @param corrections the list to add the words found to
+     */
+    private static void findSubstitutions(Node node, char[] letters, int pos,
+            boolean substituted, List<String> corrections) {
+        if (pos == letters.length) {
+            if (substituted && node.isWord()) {
+                corrections.add(new String(letters));
+            }
+            return;
+        }
+        char original = letters[pos];
+        if (!substituted) {
+            // Try each replacement letter that has a child at this position
+            int rank = 0;
+            for (int bits = node.mask & Node.LETTER_MASK; bits != 0; bits &= bits - 1) {
+                Node child = node.childAt(rank++);
+                char replacement = (char) ('a' + Integer.numberOfTrailingZeros(bits));
+                if (replacement != original) {
+                    letters[pos] = replacement;
+                    findSubstitutions(child, letters, pos + 1, true, corrections);
+                }
+            }
+            letters[pos] = original;
+        }
+        Node next = node.child(original - 'a');
+        if (next != null) {
+            findSubstitutions(next, letters, pos + 1, substituted, corrections);
+        }
+    }
+
+    /**
+     * Finds the words that the given word could be a fat-fingered typing of on
+     * a QWERTY keyboard, within a budget of {@value #KEYBOARD_BUDGET}; see
+     * {@link #getKeyboardCorrections(String, KeyboardLayout, int)}.
+     *
+     * @param word The word to correct
+     * @return The words word could be a mistyping of, cheapest first
+     */
+    public List<String> getKeyboardCorrections(String word) {
+        return getKeyboardCorrections(word, KeyboardLayout.QWERTY, KEYBOARD_BUDGET);
+    }
+
+    /**
+     * Finds the words of the same length that the given word could be a
+     * mistyping of, where each letter typed in place of another costs as much
+     * as {@link KeyboardLayout#cost} says. The trie is walked one letter of the
+     * word at a time, trying the letters in order of cost and stopping at the
+     * first one the rest of the budget cannot pay for, so with the default
+     * costs and budget only the letter typed and the keys around it are ever
+     * tried.
+     *
+     * @param word The word to correct
+     * @param layout The keyboard the word was typed on
+     * @param budget The largest total cost of the substitutions
+     * @return The words other than word itself within budget, cheapest first,
+     *         then most frequent first, then in alphabetical order
+     */
+    public List<String> getKeyboardCorrections(String word, KeyboardLayout layout, int budget) {
+        char[] letters = word.toLowerCase().toCharArray();
+        long[][] choices = new long[letters.length][];
+        for (int pos = 0; pos < letters.length; pos++) {
+            choices[pos] = layout.choices(letters[pos]);
+        }
+        List<Suggestion> found = new ArrayList<>();
+        findOnKeyboard(root, letters, 0, 0, budget, choices, new char[letters.length], found);
+        Collections.sort(found);
+        List<String> corrections = new ArrayList<>(found.size());
+        for (Suggestion suggestion : found) {
+            corrections.add(suggestion.word);
+        }
+        return corrections;
+    }
+
+    /**
+     * Finds the words below a node that the rest of a word could be a
+     * mistyping of within a budget.
+     *
+     * @param node the node reached by the first pos characters of path
+     * @param letters the word being corrected
+     * @param pos the index in letters of the next character typed
+     * @param cost the cost of the substitutions in path so far
+     * @param budget the largest total cost allowed
+     * @param choices the {@linkplain KeyboardLayout#choices choices} for the
+     *        letter typed at each position
+     * @param path the characters of the candidate so far
+     * @param found the list to add the words found to, with their cost
+     */
+    private static void findOnKeyboard(Node node, char[] letters, int pos, int cost, int budget,
+            long[][] choices, char[] path, List<Suggestion> found) {
+        if (pos == letters.length) {
+            if (node.isWord() && !Arrays.equals(path, letters)) {
+                found.add(new Suggestion(new String(path), cost, node.weight));
+            }
+            return;
+        }
+        for (long choice : choices[pos]) {
+            long next = cost + (choice >>> KeyboardLayout.LETTER_BITS);
+            if (next > budget) {
+                break;
+            }
+            int index = (int) choice & ((1 << KeyboardLayout.LETTER_BITS) - 1);
+            Node child = node.child(index);
+            if (child != null) {
+                path[pos] = (char) ('a' + index);
+                findOnKeyboard(child, letters, pos + 1, (int) next, budget, choices, path, found);
+            }
+        }
+    }
+
+    /**
+     * Finds all valid words within one edit of the given word, where an edit is
+     * inserting a character, deleting one, substituting one for another, or
+     * swapping two adjacent characters. All four kinds of edit are explored
+     * in one depth-first walk of the trie that only branches while no edit has
+     * been made, and that abandons a branch as soon as the rest of the word
+     * leaves the trie; no candidate string is built unless it is a word.
+     *
+     * @param word The word to correct
+     * @return The distinct words one edit away from word, in alphabetical order
+     */
+    public List<String> getEditDistanceOneCorrections(String word) {
+        char[] letters = word.toLowerCase().toCharArray();
+        TreeSet<String> corrections = new TreeSet<>();
+        findEdits(root, letters, 0, false, new char[letters.length + 1], 0, corrections);
+        return new ArrayList<>(corrections);
+    }
+
+    /**
+     * Finds the words reachable from a node by following the rest of a word
+     * with at most one edit, which must have been made by the end.
+     *
+     * @param node the node reached by the first depth characters of path
+     * @param letters the word being corrected
+     * @param pos the index in letters of the next character to follow
+     * @param edited whether the edit has been made already
+     * @param path the characters of the candidate so far
+     * @param depth the number of characters of the candidate so far
+     * @param corrections the set to add the words found to
+     */
+    private static void findEdits(Node node, char[] letters, int pos, boolean edited,
+            char[] path, int depth, Set<String> corrections) {
+        if (!edited) {
+            // Insert each letter that has a child before letters[pos]
+            int rank = 0;
+            for (int bits = node.mask & Node.LETTER_MASK; bits != 0; bits &= bits - 1) {
+                path[depth] = (char) ('a' + Integer.numberOfTrailingZeros(bits));
+                findEdits(node.childAt(rank++), letters, pos, true, path, depth + 1,
+                        corrections);
+            }
+        }
+        if (pos == letters.length) {
+            if (edited && node.isWord()) {
+                corrections.add(new String(path, 0, depth));
+            }
+            return;
+        }
+        if (edited) {
+            Node next = node.child(letters[pos] - 'a');
+            if (next != null) {
+                path[depth] = letters[pos];
+                findEdits(next, letters, pos + 1, true, path, depth + 1, corrections);
+            }
+            return;
+        }
+
+        // Delete letters[pos]
+        findEdits(node, letters, pos + 1, true, path, depth, corrections);
+        // Substitute letters[pos], or keep it and move on unedited
+        int rank = 0;
+        for (int bits = node.mask & Node.LETTER_MASK; bits != 0; bits &= bits - 1) {
+            char c = (char) ('a' + Integer.numberOfTrailingZeros(bits));
+            path[depth] = c;
+            findEdits(node.childAt(rank++), letters, pos + 1, c != letters[pos], path,
+                    depth + 1, corrections);
+        }
+        // Swap letters[pos] and letters[pos + 1]
+        if (pos + 1 < letters.length && letters[pos] != letters[pos + 1]) {
+            Node first = node.child(letters[pos + 1] - 'a');
+            Node second = first == null ? null : first.child(letters[pos] - 'a');
+            if (second != null) {
+                path[depth] = letters[pos + 1];
+                path[depth + 1] = letters[pos];
+                findEdits(second, letters, pos + 2, true, path, depth + 2, corrections);
+            }
+        }
+    }
+
+    /**
+     * Finds all valid words within a Levenshtein distance of the given word.
+     * The trie is walked depth first while carrying the row of the edit
+     * distance table for the path so far, which is the state of the word's
+     * Levenshtein automaton: only the cells within maxDistance of the diagonal
+     * are computed, and a subtree is skipped as soon as no word below it can
+     * come back within reach. A cell is the distance to a prefix of the word,
+     * and the rest of the word can only be matched by the letters below the
+     * subtree, so each cell also counts the letters left over beyond the
+     * subtree's height. Once a whole row is at the limit, only the children
+     * whose letter matches the word near the diagonal are given a row at all.
+     *
+     * <p>On words_alpha.txt a lookup takes about 20 microseconds at distance 1
+     * but 230 to 460 microseconds at distance 2, since far more of the trie is
+     * still within reach. A {@link DeletionIndex} answers distance 2 in tens of
+     * microseconds, at the cost of about 390 MB.
+     *
+     * @param word The word to correct
+     * @param maxDistance The largest number of insertions, deletions and
+     *        substitutions allowed
+     * @return The words other than word itself within maxDistance of it,
+     *         closest first and in alphabetical order within each distance
+     * @throws IllegalArgumentException If maxDistance is negative
+     */
+    public List<String> getCorrections(String word, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Negative distance: " + maxDistance);
+        }
+        char[] letters = word.toLowerCase().toCharArray();
+        int[][] rows = distanceRows(letters, maxDistance);
+        List<List<String>> byDistance = new ArrayList<>();
+        for (int d = 0; d <= maxDistance; d++) {
+            byDistance.add(new ArrayList<>());
+        }
+        findWithin(root, letters, maxDistance, rows, new char[rows.length - 1], 0, byDistance);
+
+        List<String> corrections = new ArrayList<>();
+        for (int d = 1; d <= maxDistance; d++) {
+            corrections.addAll(byDistance.get(d));
+        }
+        return corrections;
+    }
+
+    /**
+     * Finds the words below a node within a distance of a word.
+     *
+     * @param node the node reached by the first depth characters of path
+     * @param letters the word being corrected
+     * @param maxDistance the largest distance allowed
+     * @param rows one row of the edit distance table per depth, where row depth
+     *        holds the distances from path to each prefix of letters
+     * @param path the characters of the candidate so far
+     * @param depth the number of characters of the candidate so far
+     * @param byDistance the lists to add the words found to, by distance
+     */
+    private static void findWithin(Node node, char[] letters, int maxDistance, int[][] rows,
+            char[] path, int depth, List<List<String>> byDistance) {
+        int distance = rows[depth][letters.length];
+        if (node.isWord() && distance <= maxDistance) {
+            byDistance.get(distance).add(new String(path, 0, depth));
+        }
+        if (depth + 1 == rows.length) {
+            return;
+        }
+
+        int live = liveLetters(node, rows, depth, letters, maxDistance, maxDistance);
+        for (int bits = live; bits != 0; bits &= bits - 1) {
+            int bit = Integer.lowestOneBit(bits);
+            char c = (char) ('a' + Integer.numberOfTrailingZeros(bit));
+            Node child = node.childAt(Integer.bitCount(node.mask & (bit - 1)));
+            if (nextRow(rows, depth + 1, letters, c, maxDistance, child.height())
+                    <= maxDistance) {
+                path[depth] = c;
+                findWithin(child, letters, maxDistance, rows, path, depth + 1, byDistance);
+            }
+        }
+    }
+
+    /**
+     * @param letters the word being corrected
+     * @param maxDistance the largest distance allowed
+     * @return one row of the edit distance table for each length of candidate
+     *         up to that of letters plus maxDistance, with the row of the empty
+     *         candidate filled in
+     */
+    private static int[][] distanceRows(char[] letters, int maxDistance) {
+        int[][] rows = new int[letters.length + maxDistance + 1][letters.length + 1];
+        for (int[] row : rows) {
+            // Cells outside the band are never written and stay out of reach
+            Arrays.fill(row, maxDistance + 1);
+        }
+        for (int j = 0; j <= Math.min(letters.length, maxDistance); j++) {
+            rows[0][j] = j;
+        }
+        return rows;
+    }
+
+    /**
+     * Picks out the children of a node worth filling in a row for. Once every
+     * cell of the node's row is at the bound, a letter can only keep a child
+     * within it by matching a letter of the word inside the band of the next
+     * row, as in a Levenshtein automaton, so the other children are skipped
+     * without a row.
+     *
+     * @param node the node reached by the candidate so far
+     * @param rows the rows of the table
+     * @param depth the number of characters of the candidate so far
+     * @param letters the word being corrected
+     * @param maxDistance the largest distance allowed
+     * @param bound the largest distance a child may be at to be walked
+     * @return the letter bits of the children that may be within bound
+     */
+    private static int liveLetters(Node node, int[][] rows, int depth, char[] letters,
+            int maxDistance, int bound) {
+        int children = node.mask & Node.LETTER_MASK;
+        int[] row = rows[depth];
+        int from = Math.max(0, depth - maxDistance);
+        int to = Math.min(letters.length, depth + maxDistance);
+        for (int j = from; j <= to; j++) {
+            if (row[j] < bound) {
+                return children;
+            }
+        }
+        int matching = 0;
+        for (int j = Math.max(1, depth + 1 - maxDistance);
+                j <= Math.min(letters.length, depth + 1 + maxDistance); j++) {
+            int index = letters[j - 1] - 'a';
+            if (index >= 0 && index < NUM_LETTERS) {
+                matching |= 1 << index;
+            }
+        }
+        return children & matching;
+    }
+
+    /**
+     * Fills in the row of the edit distance table for a candidate one character
+     * longer than that of the previous row. Only the cells within maxDistance of
+     * the diagonal are computed, and every cell is capped at maxDistance + 1.
+     *
+     * @param rows the rows of the table
+     * @param i the index of the row to fill in, at least 1
+     * @param letters the word being corrected
+     * @param c the last character of the candidate
+     * @param maxDistance the largest distance allowed
+     * @param height the most characters a word below the candidate has past
+     *        it, or Node.MAX_HEIGHT if it may be more
+     * @return a lower bound on the distance to letters of any word starting
+     *         with the candidate: the smallest cell of the row, each plus the
+     *         number of letters after it beyond height
+     */
+    private static int nextRow(int[][] rows, int i, char[] letters, char c, int maxDistance,
+            int height) {
+        int[] row = rows[i - 1];
+        int[] next = rows[i];
+        // Cells up to this index leave more letters than the height can match
+        int reach = height == Node.MAX_HEIGHT ? 0 : letters.length - height;
+        int best = maxDistance + 1;
+        if (i <= maxDistance) {
+            next[0] = i;
+            best = i + Math.max(0, reach);
+        }
+        int to = Math.min(letters.length, i + maxDistance);
+        for (int j = Math.max(1, i - maxDistance); j <= to; j++) {
+            int cost = Math.min(row[j - 1] + (letters[j - 1] == c ? 0 : 1),
+                    Math.min(row[j], next[j - 1]) + 1);
+            next[j] = Math.min(cost, maxDistance + 1);
+            best = Math.min(best, next[j] + Math.max(0, reach - j));
+        }
+        return best;
+    }
+
+    /**
+     * Finds the k best suggestions for a word within a Levenshtein distance of
+     * {@value #MAX_SUGGESTION_DISTANCE}; see {@link #topSuggestions(String, int, int)}.
+     *
+     * @param word The word to correct
+     * @param k The largest number of suggestions to return
+     * @return At most k words other than word itself, best first
+     */
+    public List<String> topSuggestions(String word, int k) {
+        return topSuggestions(word, k, MAX_SUGGESTION_DISTANCE);
+    }
+
+    /**
+     * Finds the k best suggestions for a word within a Levenshtein distance:
+     * the closest words first, the most frequent first within a distance, and
+     * ties in alphabetical order. The trie is walked as in
+     * {@link #getCorrections}, but only the best k words found so far are kept,
+     * in a heap with the worst on top. Once the heap is full the walk only
+     * descends where a word could still beat the worst, and a word found is
+     * only turned into a String if it does.
+     *
+     * @param word The word to correct
+     * @param k The largest number of suggestions to return
+     * @param maxDistance The largest number of insertions, deletions and
+     *        substitutions allowed
+     * @return At most k words other than word itself, best first
+     * @throws IllegalArgumentException If k or maxDistance is negative
+     */
+    public List<String> topSuggestions(String word, int k, int maxDistance) {
+        if (k < 0 || maxDistance < 0) {
+            throw new IllegalArgumentException("Negative count or distance: " + k + ", "
+                    + maxDistance);
+        }
+        List<String> suggestions = new ArrayList<>();
+        if (k == 0) {
+            return suggestions;
+        }
+        char[] letters = word.toLowerCase().toCharArray();
+        int[][] rows = distanceRows(letters, maxDistance);
+        PriorityQueue<Suggestion> best = new PriorityQueue<>(k + 1, Collections.reverseOrder());
+        rankWithin(root, letters, maxDistance, rows, new char[rows.length - 1], 0, k, best);
+        while (!best.isEmpty()) {
+            suggestions.add(best.poll().word);
+        }
+        Collections.reverse(suggestions);
+        return suggestions;
+    }
+
+    /** A word found by {@link #topSuggestions}, ordered best first. */
+    private static final class Suggestion implements Comparable<Suggestion> {
+        /** The word */
+        private final String word;
+        /** The edit distance from the word being corrected */
+        private final int distance;
+        /** The frequency of the word */
+        private final int weight;
+
+        /**
+         * @param word the word
+         * @param distance the edit distance from the word being corrected
+         * @param weight the frequency of the word
+         */
+        Suggestion(String word, int distance, int weight) {
+            this.word = word;
+            this.distance = distance;
+            this.weight = weight;
+        }
+
+        @Override
+        public int compareTo(Suggestion other) {
+            if (distance != other.distance) {
+                return Integer.compare(distance, other.distance);
+            }
+            if (weight != other.weight) {
+                return Integer.compare(other.weight, weight);
+            }
+            return word.compareTo(other.word);
+        }
+    }
+
+    /**
+     * Finds the best words below a node within a distance of a word.
+     *
+     * @param node the node reached by the first depth characters of path
+     * @param letters the word being corrected
+     * @param maxDistance the largest distance allowed
+     * @param rows one row of the edit distance table per depth
+     * @param path the characters of the candidate so far
+     * @param depth the number of characters of the candidate so far
+     * @param k the largest number of words to keep
+     * @param best the best words found so far, worst on top
+     */
+    private static void rankWithin(Node node, char[] letters, int maxDistance, int[][] rows,
+            char[] path, int depth, int k, PriorityQueue<Suggestion> best) {
+        int distance = rows[depth][letters.length];
+        if (node.isWord() && distance > 0 && distance <= maxDistance) {
+            Suggestion worst = best.size() < k ? null : best.peek();
+            if (worst == null || distance < worst.distance
+                    || (distance == worst.distance && node.weight >= worst.weight)) {
+                Suggestion found = new Suggestion(new String(path, 0, depth), distance,
+                        node.weight);
+                if (worst == null) {
+                    best.add(found);
+                } else if (found.compareTo(worst) < 0) {
+                    best.poll();
+                    best.add(found);
                 }
-                current = current.children[index];
             }
+        }
+        if (depth + 1 == rows.length) {
+            return;
+        }
+
+        int live = liveLetters(node, rows, depth, letters, maxDistance,
+                best.size() < k ? maxDistance : best.peek().distance);
+        for (int bits = live; bits != 0; bits &= bits - 1) {
+            int bit = Integer.lowestOneBit(bits);
+            char c = (char) ('a' + Integer.numberOfTrailingZeros(bit));
+            Node child = node.childAt(Integer.bitCount(node.mask & (bit - 1)));
+            int bound = best.size() < k ? maxDistance : best.peek().distance;
+            if (nextRow(rows, depth + 1, letters, c, maxDistance, child.height()) <= bound) {
+                path[depth] = c;
+                rankWithin(child, letters, maxDistance, rows, path, depth + 1, k, best);
+            }
+        }
+    }
 
-            if (!pathValid) {
+    /**
+     * Finds the k most frequent words starting with a prefix, for completion
+     * as the user types. The search is best first: a queue holds subtrees,
+     * keyed by the largest frequency of a word inside them, and words, keyed
+     * by their own frequency. Whenever a subtree comes out on top its word and
+     * children go in, and whenever a word comes out on top no word left
+     * anywhere can beat it, so the search stops after the k-th. Subtrees that
+     * cannot beat the k-th word are never opened, so the cost depends on k
+     * and the length of the words, not on how many words share the prefix.
+     *
+     * @param prefix The prefix typed so far
+     * @param k The largest number of completions to return
+     * @return At most k words starting with prefix, prefix itself included,
+     *         most frequent first and in alphabetical order among equals
+     * @throws IllegalArgumentException If k is negative
+     */
+    public List<String> complete(String prefix, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative count: " + k);
+        }
+        List<String> completions = new ArrayList<>();
+        String start = prefix.toLowerCase();
+        Node node = find(start);
+        if (node == null || k == 0) {
+            return completions;
+        }
+        PriorityQueue<Completion> queue = new PriorityQueue<>();
+        queue.add(new Completion(node, start, node.maxWeight()));
+        while (!queue.isEmpty() && completions.size() < k) {
+            Completion top = queue.poll();
+            if (top.node == null) {
+                completions.add(top.path);
                 continue;
             }
-            // Try each possible replacement letter at this position
-            for (int i = 0; i < NUM_LETTERS; i++) {
-                char replacement = (char) ('a' + i);
-                if (replacement == word.charAt(pos)) {
-                    continue; // Skip if same as original
+            if (top.node.isWord()) {
+                queue.add(new Completion(null, top.path, top.node.weight));
+            }
+            int rank = 0;
+            for (int bits = top.node.mask & Node.LETTER_MASK; bits != 0; bits &= bits - 1) {
+                Node child = top.node.childAt(rank++);
+                char c = (char) ('a' + Integer.numberOfTrailingZeros(bits));
+                queue.add(new Completion(child, top.path + c, child.maxWeight()));
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * A word or a subtree waiting in the queue of {@link #complete}, ordered
+     * by frequency, then by path, with a word before a subtree at the same path.
+     */
+    private static final class Completion implements Comparable<Completion> {
+        /** The root of the subtree, or null for a word */
+        private final Node node;
+        /** The word, or the prefix of every word in the subtree */
+        private final String path;
+        /** The frequency of the word, or the largest in the subtree */
+        private final int weight;
+
+        /**
+         * @param node the root of the subtree, or null for a word
+         * @param path the word, or the prefix of every word in the subtree
+         * @param weight the frequency of the word, or the largest in the subtree
+         */
+        Completion(Node node, String path, int weight) {
+            this.node = node;
+            this.path = path;
+            this.weight = weight;
+        }
+
+        @Override
+        public int compareTo(Completion other) {
+            if (weight != other.weight) {
+                return Integer.compare(other.weight, weight);
+            }
+            int order = path.compareTo(other.path);
+            if (order != 0) {
+                return order;
+            }
+            return Boolean.compare(node != null, other.node != null);
+        }
+    }
+
+    /**
+     * Lists the words starting with a prefix, in alphabetical order, without
+     * collecting them first: the stream walks the trie with an iterative cursor
+     * as words are consumed, so taking the first ten words only costs ten
+     * words. A parallel stream splits the walk by handing off subtrees, halving
+     * the children of the prefix's node and moving down through nodes that have
+     * a single child; a walk that has started is split between the subtrees it
+     * is inside of and the unvisited siblings of the shallowest one.
+     *
+     * @param prefix The prefix, matched case-insensitively
+     * @return A stream of the words starting with prefix, prefix itself
+     *         included, in alphabetical order
+     */
+    public Stream<String> wordsWithPrefix(CharSequence prefix) {
+        String start = prefix.toString().toLowerCase();
+        Node node = find(start);
+        if (node == null) {
+            return Stream.empty();
+        }
+        return StreamSupport.stream(new PrefixSpliterator(node, start.toCharArray(),
+                node.mask & Node.LETTER_MASK, node.isWord(), Long.MAX_VALUE), false);
+    }
+
+    /**
+     * Walks the words below some of the children of a node in pre-order. The
+     * children left to walk are a subset of the node's letter bits, which is
+     * halved by trySplit until the walk starts. Once it has started, trySplit
+     * hands off the walk itself, minus the unvisited siblings at its
+     * shallowest level, and restarts this spliterator from those siblings.
+     */
+    private static final class PrefixSpliterator implements Spliterator<String> {
+        /** The node the walk starts from */
+        private Node base;
+        /** The path to the node, followed by the path below it during the walk */
+        private char[] path;
+        /** The length of the path to the node */
+        private int baseLength;
+        /** The letters of the node's children still to walk */
+        private int letters;
+        /** Whether the word ending at the node is still to be reported */
+        private boolean baseWord;
+        /** The estimated number of words left */
+        private long estimate;
+
+        /** The nodes on the path from the base, while walking */
+        private Node[] nodes;
+        /** The letters of each node's children still to walk, while walking */
+        private int[] pending;
+        /** The depth below the base of the current node, or -1 when done */
+        private int depth = -1;
+
+        /**
+         * @param base the node the walk starts from
+         * @param path the path to the node
+         * @param letters the letters of the node's children to walk
+         * @param baseWord whether to report the word ending at the node
+         * @param estimate the estimated number of words
+         */
+        PrefixSpliterator(Node base, char[] path, int letters, boolean baseWord,
+                long estimate) {
+            this.base = base;
+            this.path = path;
+            this.baseLength = path.length;
+            this.letters = letters;
+            this.baseWord = baseWord;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            if (nodes == null) {
+                nodes = new Node[16];
+                pending = new int[16];
+                nodes[0] = base;
+                pending[0] = letters;
+                depth = 0;
+                path = Arrays.copyOf(path, baseLength + 16);
+                if (baseWord) {
+                    action.accept(new String(path, 0, baseLength));
+                    return true;
+                }
+            }
+            while (depth >= 0) {
+                int bits = pending[depth];
+                if (bits == 0) {
+                    depth--;
+                    continue;
                 }
-                // Check if this replacement leads to a valid word
-                Node checkNode = current;
-                if (checkNode.children[i] != null) {
-                    checkNode = checkNode.children[i];
-
-                    // Try to follow the rest of the word after our replacement
-                    boolean validWord = true;
-                    for (int j = pos + 1; j < word.length(); j++) {
-                        char c = word.charAt(j);
-                        int index = c - 'a';
-                        if (checkNode.children[index] == null) {
-                            validWord = false;
-                            break;
-                        }
-                        checkNode = checkNode.children[index];
-                    }
+                int bit = bits & -bits;
+                pending[depth] = bits & ~bit;
+                Node node = nodes[depth];
+                Node child = node.childAt(Integer.bitCount(node.mask & (bit - 1)));
+                if (++depth == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, depth * 2);
+                    pending = Arrays.copyOf(pending, depth * 2);
+                }
+                if (baseLength + depth > path.length) {
+                    path = Arrays.copyOf(path, path.length * 2);
+                }
+                path[baseLength + depth - 1] = (char) ('a' + Integer.numberOfTrailingZeros(bit));
+                nodes[depth] = child;
+                pending[depth] = child.mask & Node.LETTER_MASK;
+                if (child.isWord()) {
+                    action.accept(new String(path, 0, baseLength + depth));
+                    return true;
+                }
+            }
+            return false;
+        }
 
-                    // If we could follow the entire path and it's a word, add it
-                    if (validWord && checkNode.isWord) {
-                        String corrected = word.substring(0, pos) + replacement
-                                + word.substring(pos + 1);
-                        corrections.add(corrected);
+        @Override
+        public Spliterator<String> trySplit() {
+            if (nodes != null) {
+                return splitWalk();
+            }
+            if (baseWord && letters != 0) {
+                // Hand off the word at the node, which comes before the rest
+                baseWord = false;
+                estimate /= 2;
+                return new PrefixSpliterator(base, path, 0, true, 1);
+            }
+            while (Integer.bitCount(letters) == 1) {
+                // Move down to the only child so that its children can be split
+                int bit = letters;
+                Node child = base.childAt(Integer.bitCount(base.mask & (bit - 1)));
+                path = Arrays.copyOf(path, baseLength + 1);
+                path[baseLength++] = (char) ('a' + Integer.numberOfTrailingZeros(bit));
+                base = child;
+                letters = child.mask & Node.LETTER_MASK;
+                if (child.isWord()) {
+                    if (letters == 0) {
+                        baseWord = true;
+                        return null;
                     }
+                    return new PrefixSpliterator(base, path, 0, true, 1);
                 }
             }
+            if (Integer.bitCount(letters) < 2) {
+                return null;
+            }
+            int first = letters;
+            for (int i = Integer.bitCount(letters) / 2; i > 0; i--) {
+                first &= first - 1;
+            }
+            // first now holds the upper half of the letters
+            int lower = letters & ~first;
+            letters = first;
+            estimate /= 2;
+            return new PrefixSpliterator(base, path, lower, false, estimate);
         }
 
-        return corrections;
+        /**
+         * Splits a walk that has started. The unvisited children at the
+         * shallowest level that has any come after everything below them, so
+         * this spliterator restarts from them and the walk is handed off with
+         * the rest, or, when nothing is left below them, split as if unstarted.
+         *
+         * @return the spliterator covering the words before those left here,
+         *         or null if there is nothing to split
+         */
+        private Spliterator<String> splitWalk() {
+            int level = 0;
+            while (level <= depth && pending[level] == 0) {
+                level++;
+            }
+            if (level > depth) {
+                return null;
+            }
+            int below = level + 1;
+            while (below <= depth && pending[below] == 0) {
+                below++;
+            }
+            Node node = nodes[level];
+            int siblings = pending[level];
+            PrefixSpliterator walk = null;
+            if (below <= depth) {
+                walk = new PrefixSpliterator(base, path, 0, false, estimate / 2);
+                walk.baseLength = baseLength;
+                walk.nodes = nodes;
+                walk.pending = pending;
+                walk.depth = depth;
+                walk.pending[level] = 0;
+                estimate -= walk.estimate;
+            }
+            path = Arrays.copyOf(path, baseLength + level);
+            baseLength += level;
+            base = node;
+            letters = siblings;
+            baseWord = false;
+            nodes = null;
+            pending = null;
+            depth = -1;
+            return walk != null ? walk : trySplit();
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | NONNULL;
+        }
+
+        @Override
+        public Comparator<? super String> getComparator() {
+            return null;
+        }
+    }
+
+    /**
+     * Runs one command against a dictionary.
+     *
+     * @param checker the dictionary to query
+     * @param command one of check, complete or correct
+     * @param word the word to query
+     * @return the lines of output of the command, or null if the command is unknown
+     */
+    private static List<String> runCommand(Dictionary checker, String command, String word) {
+        switch (command) {
+            case "check":
+                return List.of(checker.isWord(word) ? "correct" : "incorrect");
+            case "complete":
+                return checker.getOneCharCompletions(word);
+            case "correct":
+                return checker.getOneCharCorrections(word);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Answers commands read line by line until the end of the input. Each line
+     * holds a command and a word separated by whitespace, and gets exactly one
+     * line in response: for check, "correct" or "incorrect"; for complete and
+     * correct, the suggestions separated by spaces; and for a malformed line, a
+     * line starting with "error:". Lines may end with LF, CRLF or CR. The
+     * responses to the complete lines of each read are flushed together before
+     * the next read, so a client may pipeline many requests and read the
+     * responses back in order, and a response is never held back while the
+     * next request is only partly written.
+     *
+     * @param checker the dictionary to query
+     * @param in the stream of commands
+     * @param out the stream to write the responses to
+     * @throws IOException If the input cannot be read or the output written
+     */
+    static void serve(Dictionary checker, InputStream in, OutputStream out)
+            throws IOException {
+        BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        byte[] buffer = new byte[READ_BUFFER_BYTES];
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        boolean afterCr = false;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                byte b = buffer[i];
+                if (b == '\n' && afterCr) {
+                    // The second half of a CRLF line ending
+                    afterCr = false;
+                } else if (b == '\n' || b == '\r') {
+                    respond(checker, new String(line.toByteArray(), StandardCharsets.UTF_8),
+                            writer);
+                    line.reset();
+                    afterCr = b == '\r';
+                } else {
+                    line.write(b);
+                    afterCr = false;
+                }
+            }
+            // Send every response so far before blocking on the next read
+            writer.flush();
+        }
+        if (line.size() > 0) {
+            respond(checker, new String(line.toByteArray(), StandardCharsets.UTF_8), writer);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes the response to one line of a {@link #serve} session.
+     *
+     * @param checker the dictionary to query
+     * @param line the line holding the command and the word
+     * @param writer the writer to write the response line to
+     * @throws IOException If the response cannot be written
+     */
+    private static void respond(Dictionary checker, String line, BufferedWriter writer)
+            throws IOException {
+        String[] parts = line.trim().split("\\s+");
+        if (parts.length != 2) {
+            writer.write("error: Usage: <command> <word>");
+        } else {
+            List<String> output = runCommand(checker, parts[0], parts[1]);
+            if (output == null) {
+                writer.write("error: Unknown command: " + parts[0]);
+            } else {
+                writer.write(String.join(" ", output));
+            }
+        }
+        writer.newLine();
     }
 
     /**
@@ -248,45 +2042,32 @@ public class SpellChecker {
      * - check: determines if a word is spelled correctly
      * - complete: suggests completions for a word
      * - correct: suggests corrections for a misspelled word
+     * With the single argument serve, the dictionary is loaded once and
+     * commands are read from standard input, one per line, until it is closed.
      *
-     * @param args Command line arguments: [command] [word]
+     * @param args Command line arguments: [command] [word], or serve
      * @throws IOException If the dictionary file cannot be read
      */
     public static void main(String[] args) throws IOException {
-        if (args.length != 2) {
+        if (args.length == 1 && args[0].equals("serve")) {
+            serve(SpellChecker.fromFile(DICT_PATH), System.in, System.out);
+        } else if (args.length != 2) {
             System.err.println("Usage: java SpellChecker <command> <word>");
+            System.err.println("       java SpellChecker serve");
             System.exit(1);
         } else {
             String command = args[0];
             String word = args[1];
             SpellChecker checker = SpellChecker.fromFile(DICT_PATH);
-            switch (command) {
-                case "check": {
-                    System.out.println(checker.isWord(word) ? "correct" : "incorrect");
-                    System.exit(0);
-                }
-
-                case "complete": {
-                    List<String> completions = checker.getOneCharCompletions(word);
-                    for (String completion : completions) {
-                        System.out.println(completion);
-                    }
-                    System.exit(0);
-                }
-
-                case "correct": {
-                    List<String> corrections = checker.getOneCharCorrections(word);
-                    for (String correction : corrections) {
-                        System.out.println(correction);
-                    }
-                    System.exit(0);
-                }
-
-                default: {
-                    System.err.println("Unknown command: " + command);
-                    System.exit(1);
-                }
+            List<String> output = runCommand(checker, command, word);
+            if (output == null) {
+                System.err.println("Unknown command: " + command);
+                System.exit(1);
+            }
+            for (String line : output) {
+                System.out.println(line);
             }
+            System.exit(0);
         }
     }
 }
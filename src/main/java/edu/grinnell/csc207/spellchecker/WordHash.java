@@ -0,0 +1,39 @@
+package edu.grinnell.csc207.spellchecker;
+
+/**
+ * 64-bit hashes of words for the negative filter and the deletion index: FNV-1a
+ * over the characters, one step at a time so that a hash can be extended along
+ * a trie walk, finished with the MurmurHash3 finalizer so that every bit of the
+ * result depends on every character.
+ */
+final class WordHash {
+    /** The hash of the empty word, the FNV-1a offset basis. */
+    static final long SEED = 0xcbf29ce484222325L;
+
+    /** The multiplier of each step, the FNV-1a prime. */
+    private static final long PRIME = 0x100000001b3L;
+
+    private WordHash() {
+    }
+
+    /**
+     * @param hash the unfinished hash of a word
+     * @param symbol the code of the next character
+     * @return the unfinished hash of the word followed by the character
+     */
+    static long step(long hash, int symbol) {
+        return (hash ^ symbol) * PRIME;
+    }
+
+    /**
+     * @param hash the unfinished hash of a word
+     * @return the hash of the word, with its bits mixed
+     */
+    static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
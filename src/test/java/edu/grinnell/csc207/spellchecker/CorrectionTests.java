@@ -0,0 +1,313 @@
+package edu.grinnell.csc207.spellchecker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.From;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+import org.junit.jupiter.api.Test;
+
+public class CorrectionTests {
+    /** A layout where typing one vowel for another is free. */
+    private static final KeyboardLayout VOWELS_FREE = new KeyboardLayout(
+            "qwertyuiop", "asdfghjkl", "zxcvbnm") {
+        @Override
+        public int cost(char typed, char intended) {
+            if ("aeiou".indexOf(typed) >= 0 && "aeiou".indexOf(intended) >= 0) {
+                return 0;
+            }
+            return super.cost(typed, intended);
+        }
+    };
+
+    /**
+     * @param dict some words
+     * @return the distinct words of dict with a frequency for each, with many
+     *         ties
+     */
+    private static Map<String, Integer> withFrequencies(List<String> dict) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String word : SpellingFixtures.sortedDistinct(dict)) {
+            frequencies.put(word, Math.floorMod(word.hashCode(), 5));
+        }
+        return frequencies;
+    }
+
+    /**
+     * @param frequencies some words and their frequencies
+     * @return a SpellChecker read from a word list with a frequency column
+     */
+    private static SpellChecker checker(Map<String, Integer> frequencies) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            text.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+        return SpellChecker.fromStream(
+                new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param words some words
+     * @param query a word
+     * @param maxDistance the largest distance
+     * @return the words other than query within maxDistance of it, closest first
+     *         then in alphabetical order
+     */
+    private static List<String> bruteCorrections(Iterable<String> words, String query,
+            int maxDistance) {
+        String q = query.toLowerCase();
+        List<String> found = new ArrayList<>();
+        for (String word : words) {
+            if (!word.equals(q) && SpellingFixtures.levenshtein(q, word) <= maxDistance) {
+                found.add(word);
+            }
+        }
+        found.sort(Comparator.comparingInt((String w) -> SpellingFixtures.levenshtein(q, w))
+                .thenComparing(Comparator.naturalOrder()));
+        return found;
+    }
+
+    /**
+     * @param dict some words
+     * @return a SpellChecker over dict from each way of building one, which each
+     *         work out the heights of the nodes their own way
+     */
+    private static List<SpellChecker> builds(List<String> dict) throws IOException {
+        List<SpellChecker> checkers = new ArrayList<>();
+        checkers.add(new SpellChecker(dict));
+        checkers.add(SpellChecker.buildParallel(dict));
+        checkers.add(SpellChecker.fromStream(new ByteArrayInputStream(
+                String.join("\n", dict).getBytes(StandardCharsets.UTF_8))));
+        Path file = Files.createTempFile("spellchecker", ".snap");
+        try {
+            new SpellChecker(dict).save(file);
+            checkers.add(SpellChecker.fromSnapshot(file));
+        } finally {
+            Files.delete(file);
+        }
+        SpellChecker added = new SpellChecker(dict.subList(0, dict.size() / 2));
+        for (String word : dict.subList(dict.size() / 2, dict.size())) {
+            added.add(word.toLowerCase());
+        }
+        checkers.add(added);
+        return checkers;
+    }
+
+    @Provide
+    Arbitrary<String> word() {
+        return SpellingFixtures.words();
+    }
+
+    @Provide
+    Arbitrary<String> query() {
+        return SpellingFixtures.queries();
+    }
+
+    @Property(tries = 300)
+    void correctionsMatchBruteForce(
+            @ForAll @Size(min = 1, max = 80) List<@From("word") String> dict,
+            @ForAll("query") String query, @ForAll @IntRange(max = 3) int maxDistance)
+            throws IOException {
+        List<String> expected = bruteCorrections(SpellingFixtures.sortedDistinct(dict), query,
+                maxDistance);
+        for (SpellChecker checker : builds(dict)) {
+            assertEquals(expected, checker.getCorrections(query, maxDistance));
+        }
+        assertEquals(expected, BkTree.fromWords(dict).getCorrections(query, maxDistance));
+        assertEquals(expected,
+                DeletionIndex.build(dict, 3).getCorrections(query, maxDistance));
+    }
+
+    @Test
+    void correctionsReachWordsTallerThanTheHeightBits() throws IOException {
+        String longest = "pneumonoultramicroscopicsilicovolcanoconiosis";
+        List<String> dict = List.of(longest, longest.substring(0, 40) + "x", "pneu", "p");
+        for (String query : List.of(longest.substring(1), longest + "s",
+                longest.substring(0, 38), "pneumo")) {
+            for (int maxDistance = 0; maxDistance <= 3; maxDistance++) {
+                List<String> expected = bruteCorrections(dict, query, maxDistance);
+                for (SpellChecker checker : builds(dict)) {
+                    assertEquals(expected, checker.getCorrections(query, maxDistance), query);
+                }
+            }
+        }
+    }
+
+    @Test
+    void fuzzyIndexesMatchBruteForceOnSampleOfDictionary() {
+        List<String> dict = SpellingFixtures.sample();
+        List<FuzzyIndex> indexes = List.of(new SpellChecker(dict), BkTree.fromWords(dict),
+                DeletionIndex.build(dict, 2));
+        for (int i = 0; i < dict.size(); i += 97) {
+            String word = dict.get(i);
+            for (String query : List.of(word, word + "e", word.substring(1),
+                    word.replace('a', 'o'))) {
+                List<String> expected = bruteCorrections(dict, query, 2);
+                for (FuzzyIndex index : indexes) {
+                    assertEquals(expected, index.getCorrections(query, 2),
+                            index.getClass().getSimpleName() + " on " + query);
+                }
+            }
+        }
+    }
+
+    @Test
+    void phoneticSuggestionsFindHomophones() throws IOException {
+        PhoneticIndex index = PhoneticIndex.build(
+                SpellChecker.fromFile(SpellingFixtures.DICT_PATH));
+        // Without frequencies, the closest sounds with vowels come first, then spellings
+        assertEquals(List.of("foin", "phone", "foehn"), index.getPhoneticSuggestions("fone", 3));
+        assertEquals(List.of("nide", "gnide", "night", "knight"),
+                index.getPhoneticSuggestions("NITE", 4));
+        assertEquals(List.of("throu", "through", "thro"),
+                index.getPhoneticSuggestions("thru", 3));
+        assertEquals(List.of("fiscs", "fossicks", "physics", "physicks"),
+                index.getPhoneticSuggestions("fizix", 4));
+        assertEquals("knowledge", index.getPhoneticSuggestions("nolij").get(0));
+        assertTrue(index.getPhoneticSuggestions("nite", 0).isEmpty());
+    }
+
+    @Test
+    void rejectsNegativeArguments() {
+        SpellChecker checker = new SpellChecker(List.of("cat", "cot"));
+        assertThrows(IllegalArgumentException.class, () -> checker.getCorrections("cat", -1));
+        assertThrows(IllegalArgumentException.class, () -> checker.topSuggestions("cat", -1));
+        assertThrows(IllegalArgumentException.class, () -> checker.complete("c", -1));
+        DeletionIndex index = DeletionIndex.build(List.of("cat", "cot"), 1);
+        assertThrows(IllegalArgumentException.class, () -> index.getCorrections("cat", 2));
+    }
+
+    @Property(tries = 300)
+    void topSuggestionsMatchBruteForce(
+            @ForAll @Size(min = 1, max = 80) List<@From("word") String> dict,
+            @ForAll("query") String query, @ForAll @IntRange(max = 6) int k,
+            @ForAll @IntRange(max = 3) int maxDistance) throws IOException {
+        Map<String, Integer> frequencies = withFrequencies(dict);
+        String q = query.toLowerCase();
+        List<String> expected = frequencies.keySet().stream()
+                .filter(w -> !w.equals(q) && SpellingFixtures.levenshtein(q, w) <= maxDistance)
+                .sorted(Comparator.comparingInt((String w) -> SpellingFixtures.levenshtein(q, w))
+                        .thenComparing(w -> -frequencies.get(w))
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(k)
+                .collect(Collectors.toList());
+        assertEquals(expected, checker(frequencies).topSuggestions(query, k, maxDistance));
+    }
+
+    @Property(tries = 300)
+    void completionsMatchBruteForce(
+            @ForAll @Size(min = 1, max = 80) List<@From("word") String> dict,
+            @ForAll("query") String prefix, @ForAll @IntRange(max = 6) int k)
+            throws IOException {
+        Map<String, Integer> frequencies = withFrequencies(dict);
+        String p = prefix.toLowerCase();
+        List<String> expected = frequencies.keySet().stream()
+                .filter(w -> w.startsWith(p))
+                .sorted(Comparator.comparingInt((String w) -> -frequencies.get(w))
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(k)
+                .collect(Collectors.toList());
+        SpellChecker checker = checker(frequencies);
+        assertEquals(expected, checker.complete(prefix, k));
+    }
+
+    @Property(tries = 300)
+    void keyboardCorrectionsMatchBruteForce(
+            @ForAll @Size(min = 1, max = 80) List<@From("word") String> dict,
+            @ForAll("query") String query, @ForAll @IntRange(max = 4) int budget,
+            @ForAll boolean vowelsFree) throws IOException {
+        KeyboardLayout layout = vowelsFree ? VOWELS_FREE : KeyboardLayout.QWERTY;
+        Map<String, Integer> frequencies = withFrequencies(dict);
+        String q = query.toLowerCase();
+        Map<String, Integer> costs = new LinkedHashMap<>();
+        for (String word : frequencies.keySet()) {
+            if (word.length() == q.length() && !word.equals(q)) {
+                int cost = 0;
+                for (int i = 0; i < q.length(); i++) {
+                    cost += layout.cost(q.charAt(i), word.charAt(i));
+                }
+                if (cost <= budget) {
+                    costs.put(word, cost);
+                }
+            }
+        }
+        List<String> expected = costs.keySet().stream()
+                .sorted(Comparator.comparingInt((String w) -> costs.get(w))
+                        .thenComparing(w -> -frequencies.get(w))
+                        .thenComparing(Comparator.naturalOrder()))
+                .collect(Collectors.toList());
+        assertEquals(expected, checker(frequencies).getKeyboardCorrections(query, layout, budget));
+    }
+
+    @Property(tries = 1000)
+    void boundedEditDistanceMatchesFullTable(@ForAll("query") String a,
+            @ForAll("query") String b, @ForAll @IntRange(max = 4) int limit) {
+        assertEquals(Math.min(SpellingFixtures.levenshtein(a, b), limit + 1),
+                EditDistance.levenshtein(a, b, limit));
+    }
+
+    @Property(tries = 300)
+    void editDistanceOneCorrectionsMatchBruteForce(
+            @ForAll @Size(min = 1, max = 80) List<@From("word") String> dict,
+            @ForAll("query") String query) {
+        String q = query.toLowerCase();
+        List<String> expected = SpellingFixtures.sortedDistinct(dict).stream()
+                .filter(w -> !w.equals(q) && (SpellingFixtures.levenshtein(q, w) == 1
+                        || SpellingFixtures.isTransposition(q, w)))
+                .collect(Collectors.toList());
+        assertEquals(expected, new SpellChecker(dict).getEditDistanceOneCorrections(query));
+    }
+
+    @Property(tries = 300)
+    void oneCharCorrectionsMatchBruteForce(
+            @ForAll @Size(min = 1, max = 80) List<@From("word") String> dict,
+            @ForAll("query") String query) {
+        SpellChecker checker = new SpellChecker(dict);
+        List<String> words = SpellingFixtures.sortedDistinct(dict);
+        char[] letters = query.toLowerCase().toCharArray();
+        List<String> expected = new ArrayList<>();
+        for (int pos = 0; pos < letters.length; pos++) {
+            char original = letters[pos];
+            for (char c = 'a'; c <= 'z'; c++) {
+                letters[pos] = c;
+                if (c != original && words.contains(new String(letters))) {
+                    expected.add(new String(letters));
+                }
+            }
+            letters[pos] = original;
+        }
+        assertEquals(expected, checker.getOneCharCorrections(query));
+    }
+
+    @Test
+    void keyboardLayoutRejectsBadRows() {
+        assertThrows(IllegalArgumentException.class, () -> new KeyboardLayout("qwe", "a1s"));
+        assertThrows(IllegalArgumentException.class, () -> new KeyboardLayout("qwe", "aqs"));
+    }
+
+    @Test
+    void keyboardLayoutCostsByAdjacency() {
+        assertEquals(0, KeyboardLayout.QWERTY.cost('g', 'G'));
+        assertEquals(KeyboardLayout.ADJACENT_COST, KeyboardLayout.QWERTY.cost('g', 'h'));
+        assertEquals(KeyboardLayout.ADJACENT_COST, KeyboardLayout.QWERTY.cost('g', 't'));
+        assertEquals(KeyboardLayout.ADJACENT_COST, KeyboardLayout.QWERTY.cost('g', 'b'));
+        assertEquals(KeyboardLayout.OTHER_COST, KeyboardLayout.QWERTY.cost('g', 'p'));
+    }
+}
@@ -0,0 +1,351 @@
+package edu.grinnell.csc207.spellchecker;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.From;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DictionaryTests {
+    /**
+     * @param dict the words of a dictionary
+     * @return every engine built over the words, by name
+     */
+    private static Map<String, Dictionary> engines(List<String> dict) {
+        Map<String, Function<List<String>, Dictionary>> builders = new LinkedHashMap<>();
+        builders.put("trie", SpellChecker::new);
+        builders.put("parallel trie", SpellChecker::buildParallel);
+        builders.put("streamed trie", DictionaryTests::fromStream);
+        builders.put("snapshot trie", DictionaryTests::fromSnapshot);
+        builders.put("filtered trie", words -> {
+            SpellChecker checker = new SpellChecker(words);
+            checker.enableNegativeFilter();
+            return checker;
+        });
+        builders.put("dawg", DawgDictionary::fromWords);
+        builders.put("sorted dawg", words ->
+                DawgDictionary.fromSorted(SpellingFixtures.sortedDistinct(words).stream()));
+        builders.put("double-array", DoubleArrayDictionary::fromWords);
+        builders.put("louds", LoudsDictionary::fromWords);
+        builders.put("mapped dawg", DictionaryTests::mapped);
+        Map<String, Dictionary> engines = new LinkedHashMap<>();
+        for (Map.Entry<String, Function<List<String>, Dictionary>> builder
+                : builders.entrySet()) {
+            engines.put(builder.getKey(), builder.getValue().apply(dict));
+        }
+        return engines;
+    }
+
+    private static SpellChecker fromStream(List<String> words) {
+        byte[] text = String.join("\n", words).getBytes(StandardCharsets.UTF_8);
+        try {
+            return SpellChecker.fromStream(new ByteArrayInputStream(text));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static SpellChecker fromSnapshot(List<String> words) {
+        try {
+            Path file = Files.createTempFile("spellchecker", ".snap");
+            try {
+                new SpellChecker(words).save(file);
+                return SpellChecker.fromSnapshot(file);
+            } finally {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MappedDictionary mapped(List<String> words) {
+        try {
+            Path file = Files.createTempFile("spellchecker", ".dawg");
+            file.toFile().deleteOnExit();
+            DawgDictionary.fromWords(words).save(file);
+            return MappedDictionary.open(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Checks that every engine answers every query as the plain trie does, and
+     * that isWord matches the set of words.
+     *
+     * @param dict the words of the dictionary
+     * @param queries the words to look up
+     */
+    private static void assertEnginesAgree(List<String> dict, List<String> queries) {
+        SpellChecker reference = new SpellChecker(dict);
+        Set<String> words = new HashSet<>(SpellingFixtures.sortedDistinct(dict));
+        for (Map.Entry<String, Dictionary> engine : engines(dict).entrySet()) {
+            Dictionary dictionary = engine.getValue();
+            for (String query : queries) {
+                String message = engine.getKey() + " on \"" + query + "\"";
+                assertEquals(words.contains(query.toLowerCase()), dictionary.isWord(query),
+                        message);
+                assertEquals(reference.getOneCharCompletions(query),
+                        dictionary.getOneCharCompletions(query), message);
+                assertEquals(reference.getOneCharEndCorrections(query),
+                        dictionary.getOneCharEndCorrections(query), message);
+                assertEquals(reference.getOneCharCorrections(query),
+                        dictionary.getOneCharCorrections(query), message);
+            }
+        }
+    }
+
+    @Provide
+    Arbitrary<String> word() {
+        return SpellingFixtures.words();
+    }
+
+    @Provide
+    Arbitrary<String> query() {
+        return SpellingFixtures.queries();
+    }
+
+    @Property(tries = 200)
+    void enginesAgreeOnRandomDictionaries(
+            @ForAll @Size(min = 1, max = 60) List<@From("word") String> dict,
+            @ForAll @Size(max = 20) List<@From("query") String> queries) {
+        List<String> all = new ArrayList<>(queries);
+        all.addAll(dict);
+        assertEnginesAgree(dict, all);
+    }
+
+    @Test
+    void enginesAgreeOnSampleOfDictionary() {
+        List<String> dict = SpellingFixtures.sample();
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < dict.size(); i += 50) {
+            String word = dict.get(i);
+            queries.add(word);
+            queries.add(word.toUpperCase());
+            queries.add(word.substring(0, word.length() - 1));
+            queries.add(word + "s");
+            queries.add(new StringBuilder(word).reverse().toString());
+        }
+        queries.add("");
+        queries.add("a1b");
+        assertEnginesAgree(dict, queries);
+    }
+
+    @Property(tries = 200)
+    void isWordOverloadsAgree(
+            @ForAll @Size(min = 1, max = 60) List<@From("word") String> dict,
+            @ForAll @Size(max = 40) List<@From("query") String> queries) {
+        SpellChecker checker = new SpellChecker(dict);
+        SpellChecker filtered = new SpellChecker(dict);
+        filtered.enableNegativeFilter();
+        for (String query : queries) {
+            boolean expected = checker.isWord(query);
+            char[] padded = ("#" + query + "#").toCharArray();
+            ByteBuffer bytes = ByteBuffer.wrap(("##" + query).getBytes(StandardCharsets.UTF_8));
+            for (SpellChecker c : List.of(checker, filtered)) {
+                assertEquals(expected, c.isWord(query), query);
+                assertEquals(expected, c.isWord(new StringBuilder(query)), query);
+                assertEquals(expected, c.isWord(padded, 1, query.length()), query);
+                assertEquals(expected, c.isWord(bytes, 2, query.length()), query);
+            }
+        }
+    }
+
+    @Property(tries = 200)
+    void batchesAgreeWithIsWord(
+            @ForAll @Size(min = 1, max = 60) List<@From("word") String> dict,
+            @ForAll @Size(max = 40) List<@From("query") String> queries) {
+        SpellChecker checker = new SpellChecker(dict);
+        boolean[] expected = new boolean[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            expected[i] = checker.isWord(queries.get(i));
+        }
+        assertArrayEquals(expected, checker.isWords(queries));
+        checker.enableNegativeFilter();
+        assertArrayEquals(expected, checker.isWords(queries));
+    }
+
+    @Test
+    void batchesAgreeWithIsWordOnSampleOfDictionary() {
+        List<String> dict = SpellingFixtures.sample();
+        SpellChecker checker = new SpellChecker(dict);
+        List<CharSequence> queries = new ArrayList<>();
+        for (int i = dict.size() - 1; i >= 0; i -= 3) {
+            String word = dict.get(i);
+            queries.add(word);
+            queries.add(new StringBuilder(word.toUpperCase()));
+            queries.add(word + "zz");
+            queries.add(word.substring(1));
+        }
+        queries.add("");
+        queries.add("caf\u00e9");
+        boolean[] expected = new boolean[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            expected[i] = checker.isWord(queries.get(i));
+        }
+        assertArrayEquals(expected, checker.isWords(queries));
+    }
+
+    @Property(tries = 200)
+    void bitVectorSelectsEveryZero(@ForAll @Size(max = 80) List<Long> words,
+            @ForAll @IntRange(max = 63) int cut) {
+        long[] bits = new long[words.size()];
+        for (int i = 0; i < bits.length; i++) {
+            // Mostly ones, so that samples span several blocks
+            bits[i] = words.get(i) | (i % 3 == 0 ? -1L << 8 : 0);
+        }
+        int length = Math.max(0, bits.length * Long.SIZE - cut);
+        BitVector vector = new BitVector(bits, length);
+        int zeros = 0;
+        for (int i = 0; i < length; i++) {
+            if (!vector.get(i)) {
+                assertEquals(i, vector.select0(zeros++));
+                assertEquals(i, vector.nextZero(i));
+            }
+        }
+    }
+
+    @Test
+    void negativeFilterKeepsWordsAddedLater() {
+        SpellChecker checker = new SpellChecker(List.of("alpha", "beta"));
+        checker.enableNegativeFilter();
+        checker.add("gamma");
+        assertTrue(checker.isWord("gamma"));
+        assertTrue(checker.isWord("ALPHA"));
+        assertEquals(false, checker.isWord("delta"));
+    }
+
+    @Test
+    void enginesRejectNonLetters() {
+        Map<String, Function<List<String>, Dictionary>> builders = new LinkedHashMap<>();
+        builders.put("dawg", DawgDictionary::fromWords);
+        builders.put("double-array", DoubleArrayDictionary::fromWords);
+        builders.put("louds", LoudsDictionary::fromWords);
+        for (Map.Entry<String, Function<List<String>, Dictionary>> builder
+                : builders.entrySet()) {
+            for (List<String> dict : List.of(List.of("it's", "its", "a"), List.of("a", "{"),
+                    List.of("b", "`"), List.of("caf\u00e9"))) {
+                IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                        () -> builder.getValue().apply(dict), builder.getKey() + " on " + dict);
+                assertTrue(e.getMessage().startsWith("Not a letter: "), e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    void wordsAddedLaterAreFound() {
+        SpellChecker checker = new SpellChecker(List.of("cab", "cat"));
+        checker.add("cart");
+        checker.add("ca");
+        for (String word : List.of("cab", "cat", "cart", "ca", "CA")) {
+            assertTrue(checker.isWord(word), word);
+        }
+        assertEquals(List.of("cab", "cat"), checker.getOneCharCompletions("ca"));
+        assertEquals(false, checker.isWord("c"));
+        assertEquals(false, checker.isWord("carts"));
+    }
+
+    @Test
+    void parallelAndStreamedBuildsSaveTheSameSnapshot(@TempDir Path dir) throws IOException {
+        List<String> dict = SpellingFixtures.sample();
+        Path expected = dir.resolve("expected.snap");
+        new SpellChecker(dict).save(expected);
+        Path parallel = dir.resolve("parallel.snap");
+        SpellChecker.buildParallel(dict).save(parallel);
+        assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(parallel));
+        Path streamed = dir.resolve("streamed.snap");
+        fromStream(dict).save(streamed);
+        assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(streamed));
+    }
+
+    @Test
+    void fromStreamAcceptsLineEndings() throws IOException {
+        byte[] text = "apple\r\nBanana\rcherry\ndate".getBytes(StandardCharsets.UTF_8);
+        SpellChecker checker = SpellChecker.fromStream(new ByteArrayInputStream(text));
+        for (String word : List.of("apple", "banana", "cherry", "date")) {
+            assertTrue(checker.isWord(word), word);
+        }
+        assertEquals(false, checker.isWord("applebanana"));
+    }
+
+    @Test
+    void fromStreamAcceptsFrequencies() throws IOException {
+        byte[] text = "apple 12\r\nBanana\rcherry\t7\ndate".getBytes(StandardCharsets.UTF_8);
+        SpellChecker checker = SpellChecker.fromStream(new ByteArrayInputStream(text));
+        for (String word : List.of("apple", "banana", "cherry", "date")) {
+            assertTrue(checker.isWord(word), word);
+        }
+        assertEquals(12, checker.getFrequency("apple"));
+        assertEquals(7, checker.getFrequency("cherry"));
+        assertEquals(0, checker.getFrequency("banana"));
+    }
+
+    @Test
+    void fromStreamRejectsNonLettersAndBadFrequencies() {
+        for (String text : List.of("apple\nit's\n", "apple 1x\n", "apple 5 6\n", "apple\n 5\n",
+                "apple\t5\t6")) {
+            assertThrows(IOException.class, () -> SpellChecker.fromStream(
+                    new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))), text);
+        }
+    }
+
+    @Test
+    void fromStreamAcceptsTrailingWhitespace() throws IOException {
+        byte[] text = "apple 12 \nbanana\t\ncherry".getBytes(StandardCharsets.UTF_8);
+        SpellChecker checker = SpellChecker.fromStream(new ByteArrayInputStream(text));
+        assertEquals(12, checker.getFrequency("apple"));
+        assertTrue(checker.isWord("banana"));
+        assertEquals(false, checker.isWord(""));
+    }
+
+    @Test
+    void dawgBuilderRejectsWordsOutOfOrder() {
+        DawgBuilder builder = new DawgBuilder().add("apple").add("Apple").add("banana");
+        assertThrows(IllegalArgumentException.class, () -> builder.add("apricot"));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("banan"));
+        assertThrows(IllegalArgumentException.class,
+                () -> DawgDictionary.fromSorted(List.of("b", "a").iterator()));
+    }
+
+    @Test
+    void dawgBuilderRejectsNonLettersAndReuse() {
+        assertThrows(IllegalArgumentException.class, () -> new DawgBuilder().add("it's"));
+        DawgBuilder builder = new DawgBuilder().add("a");
+        DawgDictionary dawg = builder.build();
+        assertTrue(dawg.isWord("a"));
+        assertThrows(IllegalStateException.class, () -> builder.add("b"));
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    @Test
+    void dawgSharesSuffixes() {
+        DawgDictionary dawg = DawgDictionary.fromWords(
+                List.of("tap", "taps", "top", "tops"));
+        // t, a|o, p, s: the two branches share their tails
+        assertEquals(5, dawg.numStates());
+    }
+}
@@ -0,0 +1,246 @@
+package edu.grinnell.csc207.spellchecker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DocumentCheckerTests {
+    /** The separators put between the words of a generated document. */
+    private static final String[] SEPARATORS = {" ", " ", " ", ", ", ".\n", "\r\n", " - ",
+        " 42 ", "'", "\t", "!\n\n"};
+
+    /** The words that are not in the dictionary put in a generated document. */
+    private static final String[] MISSPELLINGS = {"teh", "recieve", "naïve", "Ünïcödé",
+        "qqq", "x", "speling", "WRONGG"};
+
+    private static List<String> dict;
+    private static Set<String> words;
+    private static DocumentChecker documentChecker;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void buildChecker() {
+        dict = SpellingFixtures.sample();
+        words = new HashSet<>(SpellingFixtures.sortedDistinct(dict));
+        documentChecker = new DocumentChecker(new SpellChecker(dict));
+    }
+
+    /**
+     * @param size the least number of bytes of the document
+     * @param seed the seed of the generator
+     * @return a document of dictionary words in mixed case and misspellings,
+     *         between separators of punctuation, digits and whitespace
+     */
+    private static byte[] document(int size, long seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        while (text.length() < size) {
+            String word;
+            if (random.nextInt(10) == 0) {
+                word = MISSPELLINGS[random.nextInt(MISSPELLINGS.length)];
+            } else {
+                word = dict.get(random.nextInt(dict.size()));
+                if (random.nextInt(8) == 0) {
+                    word = word.toUpperCase();
+                } else if (random.nextInt(8) == 0) {
+                    word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+                }
+            }
+            text.append(word).append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param bytes a document
+     * @return the misspellings of the document, found by splitting it into
+     *         words and looking each up in a set
+     */
+    private static List<Misspelling> naiveScan(byte[] bytes) {
+        List<Misspelling> misspellings = new ArrayList<>();
+        int i = 0;
+        while (i < bytes.length) {
+            if (!DocumentChecker.isWordByte(bytes[i])) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < bytes.length && DocumentChecker.isWordByte(bytes[i])) {
+                i++;
+            }
+            String word = new String(bytes, start, i - start, StandardCharsets.UTF_8);
+            if (!words.contains(word.toLowerCase())) {
+                misspellings.add(new Misspelling(start, i - start, word));
+            }
+        }
+        return misspellings;
+    }
+
+    /**
+     * @param bytes a document
+     * @return the document as a file in the temporary directory
+     */
+    private Path write(byte[] bytes) throws IOException {
+        Path file = dir.resolve("document.txt");
+        Files.write(file, bytes);
+        return file;
+    }
+
+    /**
+     * @param bytes the bytes to serve
+     * @param seed the seed of the read sizes
+     * @return a stream returning between 1 and 7 bytes from each read
+     */
+    private static InputStream trickle(byte[] bytes, long seed) {
+        Random random = new Random(seed);
+        return new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1 + random.nextInt(7)));
+            }
+        };
+    }
+
+    @Test
+    void mappedCheckMatchesNaiveScan() throws IOException {
+        for (long seed = 0; seed < 5; seed++) {
+            byte[] bytes = document(100_000, seed);
+            List<Misspelling> found = new ArrayList<>();
+            documentChecker.check(write(bytes), found::add);
+            assertEquals(naiveScan(bytes), found);
+        }
+    }
+
+    @Test
+    void streamCheckMatchesNaiveScan() throws IOException {
+        byte[] bytes = document(300_000, 1);
+        List<Misspelling> found = new ArrayList<>();
+        documentChecker.check(new ByteArrayInputStream(bytes), found::add);
+        assertEquals(naiveScan(bytes), found);
+    }
+
+    @Test
+    void streamCheckMatchesNaiveScanOnShortReads() throws IOException {
+        for (long seed = 0; seed < 5; seed++) {
+            byte[] bytes = document(20_000, seed);
+            List<Misspelling> found = new ArrayList<>();
+            documentChecker.check(trickle(bytes, seed), found::add);
+            assertEquals(naiveScan(bytes), found);
+        }
+    }
+
+    @Test
+    void parallelCheckMatchesNaiveScan() throws IOException {
+        // Over MIN_RANGE_BYTES per range, so the file is split
+        byte[] bytes = document(5 << 20, 2);
+        List<Misspelling> found = new ArrayList<>();
+        documentChecker.checkParallel(write(bytes), found::add);
+        assertEquals(naiveScan(bytes), found);
+    }
+
+    @Test
+    void rangeCheckMatchesNaiveScan() throws IOException {
+        byte[] bytes = document(50_000, 3);
+        List<Misspelling> expected = naiveScan(bytes);
+        Random random = new Random(3);
+        try (FileChannel channel = FileChannel.open(write(bytes), StandardOpenOption.READ)) {
+            for (int trial = 0; trial < 20; trial++) {
+                int from = boundaryAfter(bytes, random.nextInt(bytes.length));
+                int to = boundaryAfter(bytes, from + random.nextInt(bytes.length - from + 1));
+                List<Misspelling> found = new ArrayList<>();
+                documentChecker.check(channel, from, to, found::add);
+                assertEquals(expected.stream()
+                        .filter(m -> m.getOffset() >= from && m.getOffset() < to)
+                        .collect(Collectors.toList()), found);
+            }
+        }
+    }
+
+    /**
+     * @param bytes a document
+     * @param position an offset in the document
+     * @return the offset of the first byte at or after position that is not
+     *         part of a word, or the length of the document
+     */
+    private static int boundaryAfter(byte[] bytes, int position) {
+        while (position < bytes.length && DocumentChecker.isWordByte(bytes[position])) {
+            position++;
+        }
+        return position;
+    }
+
+    @Test
+    void emptyDocumentsHaveNoMisspellings() throws IOException {
+        List<Misspelling> found = new ArrayList<>();
+        documentChecker.check(write(new byte[0]), found::add);
+        documentChecker.checkParallel(write(new byte[0]), found::add);
+        documentChecker.check(new ByteArrayInputStream(new byte[0]), found::add);
+        assertEquals(List.of(), found);
+    }
+
+    @Test
+    void wordsLongerThanAWindowAreSplitAlike() throws IOException {
+        byte[] bytes = new byte[2 * DocumentChecker.WINDOW_BYTES + 10];
+        Arrays.fill(bytes, (byte) 'q');
+        bytes[5] = ' ';
+        List<Misspelling> mapped = new ArrayList<>();
+        documentChecker.check(write(bytes), mapped::add);
+        List<Misspelling> streamed = new ArrayList<>();
+        documentChecker.check(new ByteArrayInputStream(bytes), streamed::add);
+        assertEquals(mapped, streamed);
+        List<Misspelling> parallel = new ArrayList<>();
+        documentChecker.checkParallel(write(bytes), parallel::add);
+        assertEquals(mapped, parallel);
+        assertEquals(List.of(0L, 6L, 6L + DocumentChecker.WINDOW_BYTES,
+                6L + 2 * DocumentChecker.WINDOW_BYTES), mapped.stream()
+                .map(Misspelling::getOffset).collect(Collectors.toList()));
+    }
+
+    @Test
+    void streamReportsMisspellingsBeforeItEnds() throws IOException {
+        byte[] first = "helo wrld ".getBytes(StandardCharsets.UTF_8);
+        List<Misspelling> found = new ArrayList<>();
+        InputStream in = new InputStream() {
+            private int reads;
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (reads++ == 0) {
+                    System.arraycopy(first, 0, b, off, first.length);
+                    return first.length;
+                }
+                // A pipe would block here until more text arrives
+                assertFalse(found.isEmpty());
+                return -1;
+            }
+        };
+        new DocumentChecker(new SpellChecker(List.of("hello", "world"))).check(in, found::add);
+        assertEquals(List.of(new Misspelling(0, 4, "helo"), new Misspelling(5, 4, "wrld")),
+                found);
+    }
+}
@@ -0,0 +1,196 @@
+package edu.grinnell.csc207.spellchecker;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PersistenceTests {
+    /** A file loader under test, which may throw IOException. */
+    private interface Loader {
+        void load(Path path) throws IOException;
+    }
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Checks that a loader rejects a file with IOException when it is empty,
+     * truncated anywhere, or has any one of a spread of bytes flipped.
+     *
+     * @param bytes the bytes of a valid file
+     * @param loader the loader to check
+     */
+    private void assertRejectsCorruption(byte[] bytes, Loader loader) throws IOException {
+        Path file = dir.resolve("corrupt");
+        List<byte[]> corruptions = new ArrayList<>();
+        corruptions.add(new byte[0]);
+        int step = Math.max(1, bytes.length / 50);
+        for (int i = 0; i < bytes.length; i += step) {
+            corruptions.add(Arrays.copyOf(bytes, i));
+            byte[] flipped = bytes.clone();
+            flipped[i] ^= 0x40;
+            corruptions.add(flipped);
+        }
+        corruptions.add(Arrays.copyOf(bytes, bytes.length - 1));
+        byte[] flipped = bytes.clone();
+        flipped[bytes.length - 1] ^= 1;
+        corruptions.add(flipped);
+        byte[] extended = Arrays.copyOf(bytes, bytes.length + 4);
+        corruptions.add(extended);
+
+        for (byte[] corruption : corruptions) {
+            Files.write(file, corruption);
+            assertThrows(IOException.class, () -> loader.load(file));
+        }
+    }
+
+    @Test
+    void snapshotRoundTripsWords() throws IOException {
+        List<String> dict = SpellingFixtures.sample();
+        SpellChecker checker = new SpellChecker(dict);
+        Path snapshot = dir.resolve("words.snap");
+        checker.save(snapshot);
+        SpellChecker loaded = SpellChecker.fromSnapshot(snapshot);
+        for (int i = 0; i < dict.size(); i++) {
+            String word = dict.get(i);
+            assertTrue(loaded.isWord(word), word);
+            if (i % 20 == 0) {
+                assertEquals(checker.getOneCharCorrections(word),
+                        loaded.getOneCharCorrections(word), word);
+            }
+        }
+
+        Path again = dir.resolve("again.snap");
+        loaded.save(again);
+        assertArrayEquals(Files.readAllBytes(snapshot), Files.readAllBytes(again));
+    }
+
+    @Test
+    void snapshotRoundTripsFrequenciesAndCompletions() throws IOException {
+        List<String> dict = SpellingFixtures.sample();
+        SpellChecker checker = new SpellChecker(dict);
+        Path frequencies = dir.resolve("frequencies.txt");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < dict.size(); i += 3) {
+            lines.add(dict.get(i) + " " + (i % 1000));
+        }
+        Files.write(frequencies, lines);
+        checker.loadFrequencies(frequencies);
+
+        Path snapshot = dir.resolve("words.snap");
+        checker.save(snapshot);
+        SpellChecker loaded = SpellChecker.fromSnapshot(snapshot);
+        assertEquals(checker.wordsWithPrefix("").collect(Collectors.toList()),
+                loaded.wordsWithPrefix("").collect(Collectors.toList()));
+        for (String word : dict) {
+            assertEquals(checker.getFrequency(word), loaded.getFrequency(word), word);
+        }
+        for (String prefix : List.of("", "a", "co", "un", "zz")) {
+            assertEquals(checker.complete(prefix, 10), loaded.complete(prefix, 10), prefix);
+        }
+        assertEquals(checker.topSuggestions("speling", 10), loaded.topSuggestions("speling", 10));
+
+        Path again = dir.resolve("again.snap");
+        loaded.save(again);
+        assertArrayEquals(Files.readAllBytes(snapshot), Files.readAllBytes(again));
+    }
+
+    @Test
+    void snapshotRejectsCorruption() throws IOException {
+        Path snapshot = dir.resolve("words.snap");
+        new SpellChecker(List.of("a", "an", "and", "ant", "bee", "been")).save(snapshot);
+        assertRejectsCorruption(Files.readAllBytes(snapshot), SpellChecker::fromSnapshot);
+    }
+
+    @Test
+    void deletionIndexRoundTrips() throws IOException {
+        List<String> dict = SpellingFixtures.sample();
+        DeletionIndex index = DeletionIndex.build(dict, 2);
+        Path file = dir.resolve("words.idx");
+        index.save(file);
+        DeletionIndex loaded = DeletionIndex.load(file);
+        assertEquals(index.maxDistance(), loaded.maxDistance());
+        assertEquals(index.numKeys(), loaded.numKeys());
+        for (int i = 0; i < dict.size(); i += 101) {
+            String query = dict.get(i) + "x";
+            assertEquals(index.getCorrections(query, 2), loaded.getCorrections(query, 2), query);
+        }
+
+        Path again = dir.resolve("again.idx");
+        loaded.save(again);
+        assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(again));
+    }
+
+    @Test
+    void emptyDeletionIndexRoundTrips() throws IOException {
+        Path file = dir.resolve("empty.idx");
+        DeletionIndex.build(List.of(), 1).save(file);
+        assertEquals(List.of(), DeletionIndex.load(file).getCorrections("a", 1));
+    }
+
+    @Test
+    void deletionIndexRejectsCorruption() throws IOException {
+        Path file = dir.resolve("words.idx");
+        DeletionIndex.build(List.of("cat", "cot", "coat", "dog"), 1).save(file);
+        assertRejectsCorruption(Files.readAllBytes(file), DeletionIndex::load);
+    }
+
+    @Test
+    void mappedDictionaryRejectsCorruption() throws IOException {
+        Path file = dir.resolve("words.dawg");
+        DawgDictionary.fromWords(SpellingFixtures.sample()).save(file);
+        assertRejectsCorruption(Files.readAllBytes(file), MappedDictionary::open);
+    }
+
+    @Test
+    void mappedDictionaryChecksVersionOneFiles() throws IOException {
+        Path file = dir.resolve("words.dawg");
+        List<String> dict = List.of("cat", "cot", "coat", "dog");
+        DawgDictionary.fromWords(dict).save(file);
+        byte[] bytes = Files.readAllBytes(file);
+        // Version 1 is the same layout without the checksum
+        ByteBuffer unchecked = ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - Long.BYTES));
+        unchecked.putInt(4, 1);
+        Files.write(file, unchecked.array());
+        MappedDictionary mapped = MappedDictionary.open(file);
+        for (String word : dict) {
+            assertTrue(mapped.isWord(word), word);
+        }
+        assertFalse(mapped.isWord("co"));
+
+        // The last target points past the last state
+        unchecked.putInt(unchecked.capacity() - Integer.BYTES, Integer.MAX_VALUE);
+        Files.write(file, unchecked.array());
+        assertThrows(IOException.class, () -> MappedDictionary.open(file));
+    }
+
+    @Test
+    void mappedDictionaryRejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("words.dawg");
+        DawgDictionary.fromWords(List.of("cat", "cot", "coat", "dog")).save(file);
+        byte[] bytes = Files.readAllBytes(file);
+        byte[] badVersion = bytes.clone();
+        badVersion[7]++;
+        Files.write(file, badVersion);
+        assertThrows(IOException.class, () -> MappedDictionary.open(file));
+        new SpellChecker(List.of("cat")).save(dir.resolve("words.snap"));
+        assertThrows(IOException.class, () -> MappedDictionary.open(dir.resolve("words.snap")));
+        for (int length = 0; length < bytes.length; length += 4) {
+            Files.write(file, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> MappedDictionary.open(file));
+        }
+    }
+}
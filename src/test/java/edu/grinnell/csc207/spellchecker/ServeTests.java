@@ -0,0 +1,70 @@
+package edu.grinnell.csc207.spellchecker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class ServeTests {
+    /** A small dictionary to serve. */
+    private static final SpellChecker CHECKER = new SpellChecker(
+            List.of("cat", "cot", "cats", "dog"));
+
+    @Test
+    void answersEachLineInOrder() throws IOException {
+        byte[] requests = ("check cat\nCHECK cat\r\ncheck cta\rcomplete cat\n\n"
+                + "correct cat\nspell cat\n  check   dog  \ncheck dog")
+                .getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SpellChecker.serve(CHECKER, new ByteArrayInputStream(requests), out);
+        List<String> expected = List.of("correct", "error: Unknown command: CHECK",
+                "incorrect", "cats", "error: Usage: <command> <word>", "cot",
+                "error: Unknown command: spell", "correct", "correct");
+        assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8)
+                .lines().collect(Collectors.toList()));
+    }
+
+    @Test
+    void answersBeforeTheNextLineIsComplete() throws IOException {
+        PipedOutputStream client = new PipedOutputStream();
+        PipedInputStream requests = new PipedInputStream(client);
+        PipedInputStream responses = new PipedInputStream();
+        OutputStream server = new PipedOutputStream(responses);
+        Thread serving = new Thread(() -> {
+            try {
+                SpellChecker.serve(CHECKER, requests, server);
+                server.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        serving.start();
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(responses, StandardCharsets.UTF_8));
+        // A pipe breaks once the thread reading it ends, so one thread reads
+        // every response
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            // One whole request and part of the next arrive in the same read
+            client.write("check cat\ncheck d".getBytes(StandardCharsets.UTF_8));
+            client.flush();
+            assertEquals("correct", reader.readLine());
+            client.write("og\n".getBytes(StandardCharsets.UTF_8));
+            client.close();
+            assertEquals("correct", reader.readLine());
+            assertEquals(null, reader.readLine());
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package edu.grinnell.csc207.spellchecker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+
+/**
+ * Shared word lists, generators and brute-force reference implementations for
+ * the tests.
+ */
+final class SpellingFixtures {
+    /** The dictionary file at the root of the project. */
+    static final String DICT_PATH = "words_alpha.txt";
+
+    /** The number of words of the dictionary skipped between sampled words. */
+    private static final int SAMPLE_STRIDE = 37;
+
+    /** Every word of the dictionary, loaded on first use. */
+    private static List<String> dictionary;
+
+    private SpellingFixtures() {
+    }
+
+    /**
+     * @return every word of words_alpha.txt, in file order
+     */
+    static synchronized List<String> dictionary() {
+        if (dictionary == null) {
+            try {
+                dictionary = List.copyOf(Files.readAllLines(Paths.get(DICT_PATH)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return dictionary;
+    }
+
+    /**
+     * @return about ten thousand words of words_alpha.txt spread through it, for
+     *         the tests that compare against a brute-force scan
+     */
+    static List<String> sample() {
+        List<String> all = dictionary();
+        List<String> sample = new ArrayList<>();
+        for (int i = 0; i < all.size(); i += SAMPLE_STRIDE) {
+            sample.add(all.get(i));
+        }
+        return sample;
+    }
+
+    /**
+     * @return short words over a small alphabet, so that random dictionaries
+     *         share many prefixes and suffixes and random queries often hit
+     */
+    static Arbitrary<String> words() {
+        return Arbitraries.strings().withChars("abcd").ofMinLength(1).ofMaxLength(6);
+    }
+
+    /**
+     * @return queries like {@link #words}, sometimes empty, in upper case, or
+     *         with a letter outside the dictionary's alphabet
+     */
+    static Arbitrary<String> queries() {
+        return Arbitraries.oneOf(words(), words().map(String::toUpperCase),
+                Arbitraries.strings().withChars("abcdez").ofMinLength(0).ofMaxLength(7));
+    }
+
+    /**
+     * @param words some words
+     * @return the words lower-cased, without repeats, in alphabetical order
+     */
+    static List<String> sortedDistinct(List<String> words) {
+        return words.stream().map(String::toLowerCase).distinct().sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param a a string
+     * @param b another string
+     * @return the Levenshtein distance between a and b, from the full table
+     */
+    static int levenshtein(String a, String b) {
+        int[][] table = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    table[i][j] = i + j;
+                } else {
+                    int substitution = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                    table[i][j] = Math.min(table[i - 1][j - 1] + substitution,
+                            Math.min(table[i - 1][j], table[i][j - 1]) + 1);
+                }
+            }
+        }
+        return table[a.length()][b.length()];
+    }
+
+    /**
+     * @param a a string
+     * @param b another string
+     * @return true if b is a with two adjacent characters swapped
+     */
+    static boolean isTransposition(String a, String b) {
+        if (a.length() != b.length() || a.equals(b)) {
+            return false;
+        }
+        int first = 0;
+        while (a.charAt(first) == b.charAt(first)) {
+            first++;
+        }
+        return first + 1 < a.length() && a.charAt(first) == b.charAt(first + 1)
+                && a.charAt(first + 1) == b.charAt(first)
+                && a.substring(first + 2).equals(b.substring(first + 2));
+    }
+}
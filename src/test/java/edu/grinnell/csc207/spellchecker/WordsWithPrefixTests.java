@@ -0,0 +1,138 @@
+package edu.grinnell.csc207.spellchecker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.From;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.Size;
+import org.junit.jupiter.api.Test;
+
+public class WordsWithPrefixTests {
+    /**
+     * @param words the words of a dictionary, lower-cased and sorted
+     * @param prefix a prefix
+     * @return the words starting with prefix, in alphabetical order
+     */
+    private static List<String> bruteForce(List<String> words, String prefix) {
+        String p = prefix.toLowerCase();
+        return words.stream().filter(w -> w.startsWith(p)).collect(Collectors.toList());
+    }
+
+    /**
+     * Drains a spliterator while splitting it at random, recursively, before
+     * and during its walk: each split's prefix is drained before the rest, so
+     * the words come out in the spliterator's order whatever the splits.
+     *
+     * @param spliterator the spliterator to drain
+     * @param random the source of the split and advance decisions
+     * @param out the list to add the words to
+     */
+    private static void drainWithRandomSplits(Spliterator<String> spliterator, Random random,
+            List<String> out) {
+        while (random.nextInt(8) != 0) {
+            if (random.nextBoolean()) {
+                Spliterator<String> prefix = spliterator.trySplit();
+                if (prefix != null) {
+                    drainWithRandomSplits(prefix, random, out);
+                }
+            } else if (!spliterator.tryAdvance(out::add)) {
+                return;
+            }
+        }
+        spliterator.forEachRemaining(out::add);
+    }
+
+    @Provide
+    Arbitrary<String> word() {
+        return SpellingFixtures.words();
+    }
+
+    @Provide
+    Arbitrary<String> query() {
+        return SpellingFixtures.queries();
+    }
+
+    @Property(tries = 300)
+    void wordsWithPrefixMatchBruteForce(
+            @ForAll @Size(min = 1, max = 80) List<@From("word") String> dict,
+            @ForAll("query") String prefix, @ForAll long seed) {
+        SpellChecker checker = new SpellChecker(dict);
+        List<String> expected = bruteForce(SpellingFixtures.sortedDistinct(dict), prefix);
+        assertEquals(expected, checker.wordsWithPrefix(prefix).collect(Collectors.toList()));
+        assertEquals(expected,
+                checker.wordsWithPrefix(prefix).parallel().collect(Collectors.toList()));
+        List<String> split = new ArrayList<>();
+        drainWithRandomSplits(checker.wordsWithPrefix(prefix).spliterator(), new Random(seed),
+                split);
+        assertEquals(expected, split);
+    }
+
+    @Test
+    void randomSplitsOfEveryShortPrefixMatchBruteForce() {
+        List<String> words = SpellingFixtures.sortedDistinct(SpellingFixtures.sample());
+        SpellChecker checker = new SpellChecker(words);
+        List<String> prefixes = new ArrayList<>();
+        prefixes.add("");
+        for (char a = 'a'; a <= 'z'; a++) {
+            prefixes.add(String.valueOf(a));
+            for (char b = 'a'; b <= 'z'; b++) {
+                prefixes.add(String.valueOf(new char[] {a, b}));
+            }
+        }
+        Random random = new Random(207);
+        for (String prefix : prefixes) {
+            List<String> expected = bruteForce(words, prefix);
+            List<String> split = new ArrayList<>();
+            drainWithRandomSplits(checker.wordsWithPrefix(prefix).spliterator(), random, split);
+            assertEquals(expected, split, prefix);
+        }
+        assertEquals(words, checker.wordsWithPrefix("").parallel().collect(Collectors.toList()));
+    }
+
+    @Test
+    void startedWalkStillSplits() {
+        List<String> words = SpellingFixtures.sortedDistinct(SpellingFixtures.sample());
+        Spliterator<String> spliterator = new SpellChecker(words).wordsWithPrefix("")
+                .spliterator();
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(spliterator.tryAdvance(out::add));
+        }
+        Spliterator<String> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        prefix.forEachRemaining(out::add);
+        int handedOff = out.size();
+        spliterator.forEachRemaining(out::add);
+        assertTrue(handedOff > 100 && handedOff < words.size(), String.valueOf(handedOff));
+        assertEquals(words, out);
+    }
+
+    @Test
+    void streamIsSortedAndDistinct() {
+        Spliterator<String> spliterator = new SpellChecker(List.of("b", "a"))
+                .wordsWithPrefix("").spliterator();
+        int expected = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT
+                | Spliterator.NONNULL;
+        assertEquals(expected, spliterator.characteristics() & expected);
+        assertNull(spliterator.getComparator());
+    }
+
+    @Test
+    void prefixIsMatchedIgnoringCase() {
+        SpellChecker checker = new SpellChecker(SpellingFixtures.dictionary());
+        assertEquals(List.of("a", "aa", "aaa"),
+                checker.wordsWithPrefix("A").limit(3).collect(Collectors.toList()));
+        assertTrue(checker.wordsWithPrefix("qzx").findAny().isEmpty());
+    }
+}